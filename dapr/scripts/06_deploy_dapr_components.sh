@@ -47,20 +47,41 @@ kubectl apply -f "${PROJECT_ROOT}/components/tracing.yaml"
 echo "  - Todo state store (PostgreSQL)"
 kubectl apply -f "${PROJECT_ROOT}/components/todo-statestore.yaml"
 
+echo "  - Validation history state store (PostgreSQL)"
+kubectl apply -f "${PROJECT_ROOT}/components/validation-statestore.yaml"
+
+echo "  - Notification preferences state store (PostgreSQL)"
+kubectl apply -f "${PROJECT_ROOT}/components/notification-statestore.yaml"
+
 # Deploy pubsub
 echo "  - PubSub component (RabbitMQ)"
 kubectl apply -f "${PROJECT_ROOT}/components/pubsub.yaml"
 
+echo "  - Cache invalidation PubSub component (RabbitMQ)"
+kubectl apply -f "${PROJECT_ROOT}/components/todo-cache-pubsub.yaml"
+
+echo "  - Bulk subscription to todo-events (notification-service)"
+kubectl apply -f "${PROJECT_ROOT}/components/todo-events-bulk-subscription.yaml"
+
+# Deploy configuration stores
+echo "  - Validation rules configuration store (PostgreSQL)"
+kubectl apply -f "${PROJECT_ROOT}/components/validation-configstore.yaml"
+
 
 echo -e "\n${GREEN}✅ Dapr components deployed!${NC}"
 echo ""
 echo "Deployed components:"
 echo "  State Stores:"
 echo "    - todo-statestore (PostgreSQL)"
+echo "    - validation-statestore (PostgreSQL, validation-service history)"
+echo "    - notification-statestore (PostgreSQL, notification-service preferences)"
 echo "  PubSub:"
 echo "    - todo-pubsub (RabbitMQ)"
+echo "    - todo-cache-pubsub (RabbitMQ, one queue per todo-service pod)"
+echo "    - todo-events-bulk (bulk subscription for notification-service)"
 echo "  Configuration:"
 echo "    - tracing (OpenTelemetry)"
+echo "    - validation-configstore (PostgreSQL, validation-service rules)"
 echo ""
 echo "View components:"
 echo "  kubectl get components -n dapr-demo"
@@ -0,0 +1,121 @@
+package com.dash0.examples.notificationservice;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dapr.client.domain.BulkSubscribeAppResponse;
+import io.dapr.client.domain.BulkSubscribeAppResponseEntry;
+import io.dapr.client.domain.BulkSubscribeAppResponseStatus;
+import io.dapr.client.domain.BulkSubscribeMessage;
+import io.dapr.client.domain.BulkSubscribeMessageEntry;
+import io.dapr.client.domain.CloudEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * BulkTodoEventController receives todo events in batches from a Dapr bulk subscription.
+ *
+ * The subscription, including its max batch size and max await duration, is declared in
+ * components/todo-events-bulk-subscription.yaml rather than with @Topic, so it can be tuned
+ * without rebuilding the service.
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.notification.subscription.mode", havingValue = "bulk")
+public class BulkTodoEventController {
+
+    private static final TypeReference<CloudEvent<TodoEvent>> CLOUD_EVENT_TYPE = new TypeReference<>() {};
+
+    private final NotificationPipeline pipeline;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Dapr bulk PubSub subscriber for todo events. Every entry gets its own status, in request order:
+     * SUCCESS once processed or recognised as a redelivery, RETRY when processing failed or the pipeline
+     * had no room for it, and DROP when the entry carries no usable event.
+     */
+    @PostMapping("/subscribe/bulk")
+    public Mono<BulkSubscribeAppResponse> handleTodoEvents(@RequestBody BulkSubscribeMessage<JsonNode> message) {
+        log.info("Received bulk message with {} entries from topic {}", message.getEntries().size(), message.getTopic());
+
+        // Entries are queued in order, so entries for the same todo are processed in order; statuses keep entry order
+        Set<String> rejectedTodos = Collections.synchronizedSet(new HashSet<>());
+        return Flux.fromIterable(message.getEntries())
+            .flatMapSequential(entry -> processEntry(entry, rejectedTodos))
+            .collectList()
+            .map(BulkSubscribeAppResponse::new);
+    }
+
+    /**
+     * Once an entry was rejected, because its lane was full or its processing failed, later entries for the
+     * same todo are retried as well, so they are not processed ahead of the rejected one. Entries that were
+     * already queued behind it are skipped by the lane: the failure is recorded on the lane's thread before
+     * it takes the next event.
+     */
+    private Mono<BulkSubscribeAppResponseEntry> processEntry(BulkSubscribeMessageEntry<JsonNode> entry,
+                                                             Set<String> rejectedTodos) {
+        CloudEvent<TodoEvent> cloudEvent = readCloudEvent(entry);
+        if (cloudEvent == null) {
+            return Mono.just(new BulkSubscribeAppResponseEntry(entry.getEntryId(), BulkSubscribeAppResponseStatus.DROP));
+        }
+        TodoEvent todoEvent = cloudEvent.getData();
+        log.debug("Processing todo event: {} for todo {}", todoEvent.getType(), todoEvent.getTodoId());
+        if (rejectedTodos.contains(todoEvent.getTodoId())) {
+            return Mono.just(new BulkSubscribeAppResponseEntry(entry.getEntryId(), BulkSubscribeAppResponseStatus.RETRY));
+        }
+
+        return pipeline.submit(cloudEvent.getId(), todoEvent, () -> rejectedTodos.contains(todoEvent.getTodoId()))
+            .map(result -> new BulkSubscribeAppResponseEntry(entry.getEntryId(), BulkSubscribeAppResponseStatus.SUCCESS))
+            .onErrorResume(e -> {
+                rejectedTodos.add(todoEvent.getTodoId());
+                if (e instanceof LaneFullException) {
+                    log.debug("Lane of todo {} is full, asking for a retry of entry {}", todoEvent.getTodoId(), entry.getEntryId());
+                } else if (e instanceof EventSkippedException) {
+                    log.debug("An earlier entry of todo {} failed, asking for a retry of entry {}", todoEvent.getTodoId(), entry.getEntryId());
+                } else {
+                    log.warn("Failed to process entry {}, asking for a retry", entry.getEntryId(), e);
+                }
+                return Mono.just(new BulkSubscribeAppResponseEntry(entry.getEntryId(), BulkSubscribeAppResponseStatus.RETRY));
+            });
+    }
+
+    /**
+     * Entries are bound one by one so that a malformed entry is dropped on its own instead of failing
+     * the whole batch. Entries are CloudEvents unless the topic is published with rawPayload; raw events
+     * are wrapped in a CloudEvent without id. Returns null for entries without a todo event.
+     */
+    private CloudEvent<TodoEvent> readCloudEvent(BulkSubscribeMessageEntry<JsonNode> entry) {
+        JsonNode event = entry.getEvent();
+        if (event == null || event.isNull()) {
+            log.warn("Dropping entry {} without event", entry.getEntryId());
+            return null;
+        }
+        try {
+            String contentType = entry.getContentType();
+            CloudEvent<TodoEvent> cloudEvent;
+            if (contentType == null || contentType.startsWith("application/cloudevents")) {
+                cloudEvent = objectMapper.convertValue(event, CLOUD_EVENT_TYPE);
+            } else {
+                cloudEvent = new CloudEvent<>();
+                cloudEvent.setData(objectMapper.convertValue(event, TodoEvent.class));
+            }
+            if (cloudEvent.getData() == null) {
+                log.warn("Dropping entry {} with null data", entry.getEntryId());
+                return null;
+            }
+            return cloudEvent;
+        } catch (IllegalArgumentException e) {
+            log.warn("Dropping entry {} with invalid event data: {}", entry.getEntryId(), e.getMessage());
+            return null;
+        }
+    }
+}
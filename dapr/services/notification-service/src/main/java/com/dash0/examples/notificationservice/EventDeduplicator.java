@@ -0,0 +1,216 @@
+package com.dash0.examples.notificationservice;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Remembers the ids of recently processed events so that redeliveries are recognised in O(1).
+ *
+ * Ids are kept as 64-bit fingerprints in a ring of time buckets, each a fixed-size open-addressing table
+ * of longs, so memory is allocated once and does not grow with the event rate. An id is remembered for
+ * between window * (buckets - 1) / buckets and window. When the current bucket is full before its time
+ * is up, the ring advances early and the oldest bucket is forgotten sooner. Two different ids share a
+ * fingerprint with a probability of about n / 2^64 for n remembered ids.
+ *
+ * Ids are claimed before an event is processed and released again if processing fails, so that Dapr's
+ * retry of the event is not mistaken for a duplicate.
+ */
+@Component
+public class EventDeduplicator {
+
+    private final FingerprintTable[] buckets;
+    private final long bucketNanos;
+    private final Counter duplicatesCounter;
+    private final Counter earlyRotationsCounter;
+    private int current;
+    private long currentStart;
+
+    public EventDeduplicator(MeterRegistry meterRegistry,
+                             @Value("${app.notification.dedup.window:1h}") Duration window,
+                             @Value("${app.notification.dedup.buckets:6}") int bucketCount,
+                             @Value("${app.notification.dedup.max-entries:120000}") int maxEntries) {
+        if (bucketCount < 2) {
+            throw new IllegalArgumentException("app.notification.dedup.buckets must be at least 2");
+        }
+        this.buckets = new FingerprintTable[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new FingerprintTable(Math.max(1, maxEntries / bucketCount));
+        }
+        this.bucketNanos = window.toNanos() / bucketCount;
+        this.currentStart = System.nanoTime();
+        Gauge.builder("notification.dedup.entries", this, EventDeduplicator::size)
+            .description("Event ids remembered for deduplication")
+            .register(meterRegistry);
+        this.duplicatesCounter = Counter.builder("notification.dedup.duplicates")
+            .description("Redelivered events that were acknowledged without processing them again")
+            .register(meterRegistry);
+        this.earlyRotationsCounter = Counter.builder("notification.dedup.early-rotations")
+            .description("Times the oldest ids were forgotten early because a bucket was full")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Claim an event id for processing. Returns false if the id was already claimed within the window.
+     */
+    public synchronized boolean tryClaim(String eventId) {
+        long fingerprint = fingerprint(eventId);
+        rotateIfDue();
+        for (FingerprintTable bucket : buckets) {
+            if (bucket.contains(fingerprint)) {
+                duplicatesCounter.increment();
+                return false;
+            }
+        }
+        if (buckets[current].isFull()) {
+            advance();
+            earlyRotationsCounter.increment();
+        }
+        buckets[current].add(fingerprint);
+        return true;
+    }
+
+    /**
+     * Forget a claimed id after its processing failed, so the redelivery is processed.
+     */
+    public synchronized void release(String eventId) {
+        long fingerprint = fingerprint(eventId);
+        for (FingerprintTable bucket : buckets) {
+            if (bucket.remove(fingerprint)) {
+                return;
+            }
+        }
+    }
+
+    private synchronized int size() {
+        int size = 0;
+        for (FingerprintTable bucket : buckets) {
+            size += bucket.size();
+        }
+        return size;
+    }
+
+    private void rotateIfDue() {
+        long now = System.nanoTime();
+        long elapsed = now - currentStart;
+        if (elapsed < bucketNanos) {
+            return;
+        }
+        // After a long idle period every bucket may be stale; never clear more than the whole ring
+        long steps = Math.min(elapsed / bucketNanos, buckets.length);
+        for (long i = 0; i < steps; i++) {
+            advance();
+        }
+        currentStart = now - elapsed % bucketNanos;
+    }
+
+    private void advance() {
+        current = (current + 1) % buckets.length;
+        buckets[current].clear();
+    }
+
+    /**
+     * 64-bit FNV-1a over the id's characters, finished with the MurmurHash3 mixer. Never 0, which marks
+     * empty slots.
+     */
+    private static long fingerprint(String eventId) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < eventId.length(); i++) {
+            hash ^= eventId.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Linear-probing set of non-zero longs, at most half full.
+     */
+    private static final class FingerprintTable {
+
+        private final long[] slots;
+        private final int capacity;
+        private final int mask;
+        private int size;
+
+        FingerprintTable(int capacity) {
+            this.capacity = capacity;
+            this.slots = new long[Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1) << 1];
+            this.mask = slots.length - 1;
+        }
+
+        boolean contains(long fingerprint) {
+            for (int i = indexOf(fingerprint); slots[i] != 0; i = (i + 1) & mask) {
+                if (slots[i] == fingerprint) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void add(long fingerprint) {
+            int i = indexOf(fingerprint);
+            while (slots[i] != 0) {
+                if (slots[i] == fingerprint) {
+                    return;
+                }
+                i = (i + 1) & mask;
+            }
+            slots[i] = fingerprint;
+            size++;
+        }
+
+        /**
+         * Remove by shifting later entries of the probe sequence back, so lookups need no tombstones.
+         */
+        boolean remove(long fingerprint) {
+            int i = indexOf(fingerprint);
+            while (slots[i] != fingerprint) {
+                if (slots[i] == 0) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            int gap = i;
+            for (int j = (gap + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+                int home = indexOf(slots[j]);
+                // Move the entry into the gap unless its home slot lies cyclically in (gap, j]
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    slots[gap] = slots[j];
+                    gap = j;
+                }
+            }
+            slots[gap] = 0;
+            size--;
+            return true;
+        }
+
+        boolean isFull() {
+            return size >= capacity;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            if (size > 0) {
+                Arrays.fill(slots, 0L);
+                size = 0;
+            }
+        }
+
+        private int indexOf(long fingerprint) {
+            return (int) fingerprint & mask;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.dash0.examples.notificationservice;
+
+/**
+ * Exception thrown when a queued event is not processed because its submitter gave up on it.
+ */
+public class EventSkippedException extends RuntimeException {
+
+    public EventSkippedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.dash0.examples.notificationservice;
+
+/**
+ * Exception thrown when an event is rejected because the pipeline lane of its todo is full.
+ */
+public class LaneFullException extends RuntimeException {
+
+    public LaneFullException(String message) {
+        super(message);
+    }
+}
@@ -1,9 +1,7 @@
 package com.dash0.examples.notificationservice;
 
-import io.dapr.Topic;
-import io.dapr.client.domain.CloudEvent;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
@@ -12,14 +10,34 @@ import java.time.LocalDateTime;
 import java.util.Map;
 
 /**
- * NotificationController handles Dapr PubSub events only
+ * NotificationController exposes user preferences and the health endpoint; todo events are handled by
+ * TodoEventController or BulkTodoEventController, depending on app.notification.subscription.mode
  */
 @RestController
 @RequiredArgsConstructor
-@Slf4j
 public class NotificationController {
 
-    private final NotificationService notificationService;
+    private final NotificationPreferencesStore preferencesStore;
+
+    /**
+     * Get the notification preferences of a user
+     */
+    @GetMapping("/preferences/{userId}")
+    public Mono<ResponseEntity<NotificationPreferences>> getPreferences(@PathVariable String userId) {
+        return preferencesStore.get(userId)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Create or replace the notification preferences of a user
+     */
+    @PutMapping("/preferences/{userId}")
+    public Mono<ResponseEntity<NotificationPreferences>> updatePreferences(@PathVariable String userId,
+                                                                           @Valid @RequestBody UserPreferencesRequest request) {
+        return preferencesStore.save(userId, request)
+            .map(ResponseEntity::ok);
+    }
 
     /**
      * Health check endpoint
@@ -32,26 +50,4 @@ public class NotificationController {
             "timestamp", LocalDateTime.now()
         ));
     }
-
-    /**
-     * Dapr PubSub event subscriber for todo events
-     */
-    @Topic(name = "todo-events", pubsubName = "todo-pubsub")
-    @PostMapping("/subscribe")
-    public Mono<ResponseEntity<Map<String, String>>> handleTodoEvent(@RequestBody CloudEvent<TodoEvent> cloudEvent) {
-        log.info("Received CloudEvent - ID: {}, Source: {}, Type: {}", 
-                 cloudEvent.getId(), cloudEvent.getSource(), cloudEvent.getType());
-        
-        TodoEvent todoEvent = cloudEvent.getData();
-        if (todoEvent != null) {
-            log.info("Processing todo event: {} for todo {}", todoEvent.getType(), todoEvent.getTodoId());
-            
-            return notificationService.processTodoEvent(todoEvent)
-                .map(result -> ResponseEntity.ok(Map.of("status", "processed")))
-                .onErrorReturn(ResponseEntity.ok(Map.of("status", "retry")));
-        } else {
-            log.warn("Received CloudEvent with null data");
-            return Mono.just(ResponseEntity.badRequest().body(Map.of("error", "Invalid event data")));
-        }
-    }
 }
\ No newline at end of file
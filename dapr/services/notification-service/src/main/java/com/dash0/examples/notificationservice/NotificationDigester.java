@@ -0,0 +1,123 @@
+package com.dash0.examples.notificationservice;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collapses bursts of events for the same user and todo into one digest notification.
+ *
+ * The first event for a key opens a window; events for that key arriving before the window closes are
+ * appended to the same digest, and the digest is sent when the window closes. Windows are closed on a
+ * single thread in the order they expire, and a new window for a key can only open once the previous
+ * one was removed, so notifications for a key are sent in the order their events were received.
+ *
+ * Pending digests live in memory only: events are acknowledged to Dapr once they are added, so digests
+ * that are still open when the process dies are lost. Open windows are flushed on shutdown.
+ */
+@Component
+@Slf4j
+public class NotificationDigester {
+
+    private final NotificationSender sender;
+    private final int maxPending;
+    private final Map<DigestKey, Digest> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final Counter coalescedCounter;
+    private final Counter digestsCounter;
+
+    public NotificationDigester(NotificationSender sender,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.notification.digest.max-pending:10000}") int maxPending) {
+        this.sender = sender;
+        this.maxPending = maxPending;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-digest");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("notification.digest.pending", pending, Map::size)
+            .description("Digests waiting for their window to close")
+            .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("notification.digest.coalesced")
+            .description("Events added to an already open digest instead of being sent on their own")
+            .register(meterRegistry);
+        this.digestsCounter = Counter.builder("notification.digest.sent")
+            .description("Digests sent when their window closed")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Add an event to the open digest of its user and todo, or open one for the given window. Returns false
+     * if the event was not taken, because the window is zero or too many digests are open, and the caller
+     * should send it right away. An event is always appended to an open digest for its key, whatever the
+     * window, so that it is not sent ahead of earlier events for the same todo.
+     */
+    public boolean add(TodoEvent event, NotificationPreferences preferences, Duration window) {
+        DigestKey key = new DigestKey(event.getUserId(), event.getTodoId());
+        boolean[] opened = {false};
+        Digest digest = pending.compute(key, (k, open) -> {
+            if (open != null) {
+                open.events().add(event);
+                return open;
+            }
+            if (window.isZero() || pending.size() >= maxPending) {
+                return null;
+            }
+            opened[0] = true;
+            List<TodoEvent> events = new ArrayList<>();
+            events.add(event);
+            return new Digest(events, preferences);
+        });
+        if (digest == null) {
+            return false;
+        }
+        if (opened[0]) {
+            scheduler.schedule(() -> close(key), window.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            coalescedCounter.increment();
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        pending.keySet().forEach(this::close);
+    }
+
+    private void close(DigestKey key) {
+        Digest digest = pending.remove(key);
+        if (digest == null) {
+            return;
+        }
+        try {
+            sender.sendDigest(digest.events(), digest.preferences());
+            digestsCounter.increment();
+        } catch (RuntimeException e) {
+            log.warn("Failed to send digest of {} events for todo {}", digest.events().size(), key.todoId(), e);
+        }
+    }
+
+    private record DigestKey(String userId, String todoId) {
+    }
+
+    /**
+     * Events are only appended inside pending.compute, and read once the digest was removed from pending.
+     */
+    private record Digest(List<TodoEvent> events, NotificationPreferences preferences) {
+    }
+}
@@ -0,0 +1,203 @@
+package com.dash0.examples.notificationservice;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Runs event processing on a fixed set of worker lanes instead of the request threads.
+ *
+ * Events are partitioned by todoId, so all events of a todo go through the same lane, one at a time and
+ * in the order they were submitted, while events of different todos are processed in parallel. Each lane
+ * has a bounded queue; when it is full the event is rejected right away, which the subscription handlers
+ * report to Dapr as RETRY, so a backlog stays with the broker rather than in memory.
+ *
+ * Metrics: {@code notification.pipeline.lane.depth} per lane, {@code notification.pipeline.queue.wait} and
+ * {@code notification.pipeline.processing} timers, and {@code notification.pipeline.rejected}.
+ */
+@Component
+@Slf4j
+public class NotificationPipeline {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final NotificationService notificationService;
+    private final boolean enabled;
+    private final List<BlockingQueue<Task>> lanes;
+    private final Duration shutdownTimeout;
+    private final List<Thread> workers = new ArrayList<>();
+    private final Timer queueWait;
+    private final Timer processing;
+    private final Counter rejected;
+    private volatile boolean running;
+
+    public NotificationPipeline(NotificationService notificationService,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.notification.pipeline.enabled:true}") boolean enabled,
+                                @Value("${app.notification.pipeline.lanes:0}") int laneCount,
+                                @Value("${app.notification.pipeline.queue-capacity:1000}") int queueCapacity,
+                                @Value("${app.notification.pipeline.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        if (laneCount < 0 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Pipeline lanes must not be negative and queue capacity must be at least 1");
+        }
+        this.notificationService = notificationService;
+        this.enabled = enabled;
+        this.shutdownTimeout = shutdownTimeout;
+        int lanesToCreate = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        this.lanes = new ArrayList<>(lanesToCreate);
+        for (int i = 0; i < lanesToCreate; i++) {
+            BlockingQueue<Task> lane = new ArrayBlockingQueue<>(queueCapacity);
+            lanes.add(lane);
+            Gauge.builder("notification.pipeline.lane.depth", lane, BlockingQueue::size)
+                .description("Events waiting in a lane")
+                .tag("lane", String.valueOf(i))
+                .register(meterRegistry);
+        }
+        this.queueWait = Timer.builder("notification.pipeline.queue.wait")
+            .description("Time an event waited in its lane before processing started")
+            .register(meterRegistry);
+        this.processing = Timer.builder("notification.pipeline.processing")
+            .description("Time to process one event in a lane")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("notification.pipeline.rejected")
+            .description("Events rejected because their lane was full")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Notification pipeline is disabled, events are processed on the request threads");
+            return;
+        }
+        running = true;
+        for (int i = 0; i < lanes.size(); i++) {
+            BlockingQueue<Task> lane = lanes.get(i);
+            Thread worker = new Thread(() -> drain(lane), "notification-lane-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Processing events on {} lanes", lanes.size());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (workers.isEmpty()) {
+            return;
+        }
+        running = false;
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        for (Thread worker : workers) {
+            worker.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+        }
+        for (Thread worker : workers) {
+            if (worker.isAlive()) {
+                worker.interrupt();
+            }
+        }
+        List<Task> unprocessed = new ArrayList<>();
+        lanes.forEach(lane -> lane.drainTo(unprocessed));
+        if (!unprocessed.isEmpty()) {
+            log.warn("Pipeline did not finish within {}, {} events left for redelivery", shutdownTimeout, unprocessed.size());
+            unprocessed.forEach(task -> task.sink().error(new IllegalStateException("Notification pipeline stopped")));
+        }
+    }
+
+    /**
+     * Queue an event on the lane of its todo. The returned Mono completes once the event was processed,
+     * and fails right away, during subscription, with a {@link LaneFullException} if the lane is full or an
+     * IllegalStateException if the pipeline is stopped. Events are queued on subscription, so subscribing
+     * in order keeps them in order.
+     */
+    public Mono<String> submit(String cloudEventId, TodoEvent event) {
+        return submit(cloudEventId, event, () -> false);
+    }
+
+    /**
+     * Like {@link #submit(String, TodoEvent)}, but {@code skip} is checked right before the event is
+     * processed; if it is true by then, the event is not processed and the Mono fails with an
+     * {@link EventSkippedException}. Lets callers give up on queued events of a todo whose earlier
+     * event failed.
+     */
+    public Mono<String> submit(String cloudEventId, TodoEvent event, BooleanSupplier skip) {
+        if (!enabled) {
+            return Mono.defer(() -> skip.getAsBoolean()
+                ? Mono.error(skipped(event))
+                : notificationService.processDelivery(cloudEventId, event));
+        }
+        return Mono.create(sink -> {
+            if (!running) {
+                sink.error(new IllegalStateException("Notification pipeline stopped"));
+                return;
+            }
+            if (!laneOf(event.getTodoId()).offer(new Task(cloudEventId, event, skip, sink, System.nanoTime()))) {
+                rejected.increment();
+                sink.error(new LaneFullException("Notification lane for todo " + event.getTodoId() + " is full"));
+            }
+        });
+    }
+
+    private BlockingQueue<Task> laneOf(String todoId) {
+        int hash = Objects.hashCode(todoId);
+        return lanes.get(Math.floorMod(hash ^ (hash >>> 16), lanes.size()));
+    }
+
+    private void drain(BlockingQueue<Task> lane) {
+        while (running || !lane.isEmpty()) {
+            Task task;
+            try {
+                task = lane.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (task != null) {
+                process(task);
+            }
+        }
+    }
+
+    /**
+     * Blocks the lane until the event is done, which is what keeps the events of a todo in order.
+     */
+    private void process(Task task) {
+        long start = System.nanoTime();
+        queueWait.record(start - task.enqueuedAt(), TimeUnit.NANOSECONDS);
+        if (task.skip().getAsBoolean()) {
+            task.sink().error(skipped(task.event()));
+            return;
+        }
+        try {
+            task.sink().success(notificationService.processDelivery(task.cloudEventId(), task.event()).block());
+        } catch (RuntimeException e) {
+            task.sink().error(e);
+        } finally {
+            processing.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static EventSkippedException skipped(TodoEvent event) {
+        return new EventSkippedException("Skipped queued event for todo " + event.getTodoId());
+    }
+
+    private record Task(String cloudEventId, TodoEvent event, BooleanSupplier skip, MonoSink<String> sink, long enqueuedAt) {
+    }
+}
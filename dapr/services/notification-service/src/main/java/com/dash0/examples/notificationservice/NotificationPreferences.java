@@ -27,6 +27,10 @@ public class NotificationPreferences {
     @JsonProperty("emailNotifications")
     private boolean emailNotifications;
     
+    // Window in which events of one todo are collected into one digest; null uses the default, 0 disables digests
+    @JsonProperty("digestWindowSeconds")
+    private Integer digestWindowSeconds;
+    
     @JsonProperty("createdAt")
     private LocalDateTime createdAt;
     
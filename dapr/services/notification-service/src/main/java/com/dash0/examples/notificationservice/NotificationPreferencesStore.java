@@ -0,0 +1,126 @@
+package com.dash0.examples.notificationservice;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.dapr.client.DaprClient;
+import io.dapr.client.domain.State;
+import io.dapr.client.domain.StateOptions;
+import io.dapr.exceptions.DaprException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Per-user notification preferences in the Dapr state store, behind a read-through cache.
+ *
+ * The cache is bounded by size and entries expire after a TTL, which also bounds how long another
+ * replica may serve preferences that were changed elsewhere. Users without stored preferences are
+ * cached as well, so events of such users do not hit the state store either. Hit, miss and eviction
+ * metrics are published as {@code cache.*} meters with {@code cache=notification-preferences}.
+ */
+@Component
+@Slf4j
+public class NotificationPreferencesStore {
+
+    private static final String STATE_STORE_NAME = "notification-statestore";
+    private static final String PREFERENCES_KEY_PREFIX = "preferences-";
+    private static final StateOptions FIRST_WRITE =
+        new StateOptions(StateOptions.Consistency.STRONG, StateOptions.Concurrency.FIRST_WRITE);
+    private static final int MAX_CONFLICT_RETRIES = 10;
+
+    private final DaprClient daprClient;
+    private final AsyncLoadingCache<String, CachedPreferences> cache;
+
+    public NotificationPreferencesStore(DaprClient daprClient,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.notification.preferences.cache.max-size:10000}") long maxSize,
+                                        @Value("${app.notification.preferences.cache.ttl:5m}") Duration ttl) {
+        this.daprClient = daprClient;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync((userId, executor) -> load(userId).toFuture());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "notification-preferences");
+    }
+
+    /**
+     * Get the preferences of a user, loading them from the state store on a miss; empty if the user has none.
+     * Concurrent misses for the same user share one read.
+     */
+    public Mono<NotificationPreferences> get(String userId) {
+        return Mono.fromFuture(() -> cache.get(userId))
+            .mapNotNull(CachedPreferences::preferences);
+    }
+
+    /**
+     * Create or replace the preferences of a user, retrying on ETag conflicts. The cached entry is replaced
+     * once the write succeeded, superseding any read of the old preferences that is still in flight.
+     */
+    public Mono<NotificationPreferences> save(String userId, UserPreferencesRequest request) {
+        String key = PREFERENCES_KEY_PREFIX + userId;
+        // The write is guarded by the ETag that was read, so concurrent saves can't silently overwrite each
+        // other; the loser reads the winner's preferences again, keeping their createdAt
+        return Mono.defer(() -> daprClient.getState(STATE_STORE_NAME, key, NotificationPreferences.class)
+                .flatMap(state -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    NotificationPreferences existing = state.getValue();
+                    NotificationPreferences preferences = new NotificationPreferences(
+                        userId,
+                        request.getEmail(),
+                        request.getEnabledEvents(),
+                        request.isEmailNotifications(),
+                        request.getDigestWindowSeconds(),
+                        existing != null ? existing.getCreatedAt() : now,
+                        now);
+                    return daprClient.saveState(STATE_STORE_NAME, key, etagOf(state), preferences, FIRST_WRITE)
+                        .thenReturn(preferences);
+                }))
+            .retryWhen(Retry.backoff(MAX_CONFLICT_RETRIES, Duration.ofMillis(10))
+                .maxBackoff(Duration.ofMillis(500))
+                .filter(NotificationPreferencesStore::isEtagConflict)
+                .doBeforeRetry(signal ->
+                    log.debug("ETag conflict on preferences of user {}, retry #{}", userId, signal.totalRetries() + 1)))
+            .doOnSuccess(preferences -> {
+                cache.put(userId, CompletableFuture.completedFuture(new CachedPreferences(preferences)));
+                log.info("Updated notification preferences of user {}", userId);
+            })
+            .doOnError(e -> cache.synchronous().invalidate(userId));
+    }
+
+    /**
+     * Dapr reports a missing key with an empty ETag; a null ETag makes a first-write insert-only.
+     */
+    private static String etagOf(State<?> state) {
+        String etag = state.getEtag();
+        return etag == null || etag.isEmpty() ? null : etag;
+    }
+
+    /**
+     * A save with a stale ETag, or an insert of a key that exists by now, fails with ABORTED or
+     * FAILED_PRECONDITION.
+     */
+    private static boolean isEtagConflict(Throwable error) {
+        return error instanceof DaprException daprException
+            && ("ABORTED".equals(daprException.getErrorCode()) || "FAILED_PRECONDITION".equals(daprException.getErrorCode()));
+    }
+
+    private Mono<CachedPreferences> load(String userId) {
+        return daprClient.getState(STATE_STORE_NAME, PREFERENCES_KEY_PREFIX + userId, NotificationPreferences.class)
+            .map(state -> new CachedPreferences(state.getValue()));
+    }
+
+    /**
+     * Preferences are null for users who never set any.
+     */
+    private record CachedPreferences(NotificationPreferences preferences) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.dash0.examples.notificationservice;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * NotificationSender delivers notifications; in this demo a notification is a log line
+ */
+@Component
+@Slf4j
+public class NotificationSender {
+
+    /**
+     * Notify about a single event
+     */
+    public void send(TodoEvent event, NotificationPreferences preferences) {
+        if (sendsEmail(preferences)) {
+            log.info("📧 NOTIFICATION: Todo '{}' (ID: {}) was {} at {} by user {}, emailed to {}",
+                    event.getTodoName(),
+                    event.getTodoId(),
+                    event.getType(),
+                    event.getTimestamp(),
+                    event.getUserId(),
+                    preferences.getEmail());
+        } else {
+            log.info("📧 NOTIFICATION: Todo '{}' (ID: {}) was {} at {} by user {}",
+                    event.getTodoName(),
+                    event.getTodoId(),
+                    event.getType(),
+                    event.getTimestamp(),
+                    event.getUserId());
+        }
+    }
+
+    /**
+     * Notify about the events of one todo and user at once, in the order they were received. The todo
+     * is named as in the latest event.
+     */
+    public void sendDigest(List<TodoEvent> events, NotificationPreferences preferences) {
+        if (events.size() == 1) {
+            send(events.get(0), preferences);
+            return;
+        }
+        TodoEvent first = events.get(0);
+        TodoEvent last = events.get(events.size() - 1);
+        String types = events.stream().map(TodoEvent::getType).collect(Collectors.joining(", "));
+        if (sendsEmail(preferences)) {
+            log.info("📧 DIGEST: Todo '{}' (ID: {}) was {} between {} and {} by user {}, emailed to {}",
+                    last.getTodoName(),
+                    last.getTodoId(),
+                    types,
+                    first.getTimestamp(),
+                    last.getTimestamp(),
+                    last.getUserId(),
+                    preferences.getEmail());
+        } else {
+            log.info("📧 DIGEST: Todo '{}' (ID: {}) was {} between {} and {} by user {}",
+                    last.getTodoName(),
+                    last.getTodoId(),
+                    types,
+                    first.getTimestamp(),
+                    last.getTimestamp(),
+                    last.getUserId());
+        }
+    }
+
+    private static boolean sendsEmail(NotificationPreferences preferences) {
+        return preferences != null && preferences.isEmailNotifications() && preferences.getEmail() != null;
+    }
+}
\ No newline at end of file
@@ -1,28 +1,96 @@
 package com.dash0.examples.notificationservice;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+
 /**
- * NotificationService handles todo events by simply logging them
+ * NotificationService handles todo events by notifying about every event the user has enabled, either
+ * right away or collected into a digest per todo
  */
 @Service
 @Slf4j
 public class NotificationService {
 
+    private final NotificationPreferencesStore preferencesStore;
+    private final NotificationSender sender;
+    private final NotificationDigester digester;
+    private final EventDeduplicator deduplicator;
+    private final Duration defaultDigestWindow;
+
+    public NotificationService(NotificationPreferencesStore preferencesStore,
+                               NotificationSender sender,
+                               NotificationDigester digester,
+                               EventDeduplicator deduplicator,
+                               @Value("${app.notification.digest.window:5s}") Duration defaultDigestWindow) {
+        this.preferencesStore = preferencesStore;
+        this.sender = sender;
+        this.digester = digester;
+        this.deduplicator = deduplicator;
+        this.defaultDigestWindow = defaultDigestWindow;
+    }
+
     /**
-     * Process todo events and log them
+     * Process an event delivered by Dapr at most once. Events are identified by the eventId the todo-service
+     * assigns, which also catches events it published twice, or else by the CloudEvent id. Redeliveries of an
+     * event processed within the dedup window complete without processing; if processing fails, the id is
+     * released so that Dapr's retry is processed.
+     */
+    public Mono<String> processDelivery(String cloudEventId, TodoEvent event) {
+        String eventId = event.getEventId() != null ? event.getEventId() : cloudEventId;
+        if (eventId == null) {
+            return processTodoEvent(event);
+        }
+        return Mono.defer(() -> {
+            if (!deduplicator.tryClaim(eventId)) {
+                log.debug("Skipping redelivered event {} for todo {}", eventId, event.getTodoId());
+                return Mono.just("duplicate");
+            }
+            return processTodoEvent(event)
+                .doOnError(e -> deduplicator.release(eventId));
+        });
+    }
+
+    /**
+     * Process todo events and notify about them. Users without preferences, and events without a user, get
+     * notified about every event type.
      */
     public Mono<String> processTodoEvent(TodoEvent event) {
-        log.info("📧 NOTIFICATION: Todo '{}' (ID: {}) was {} at {} by user {}",
-                event.getTodoName(),
-                event.getTodoId(),
-                event.getType(),
-                event.getTimestamp(),
-                event.getUserId());
-        
-        // Simulate some processing
-        return Mono.just("processed");
+        if (event.getUserId() == null) {
+            return Mono.fromSupplier(() -> deliver(event, null));
+        }
+        return preferencesStore.get(event.getUserId())
+            .map(preferences -> isEnabled(preferences, event) ? deliver(event, preferences) : skip(event))
+            .switchIfEmpty(Mono.fromSupplier(() -> deliver(event, null)));
+    }
+
+    /**
+     * enabledEvents lists the event types to notify about; when it is not set, all types are enabled
+     */
+    private static boolean isEnabled(NotificationPreferences preferences, TodoEvent event) {
+        return preferences.getEnabledEvents() == null || preferences.getEnabledEvents().contains(event.getType());
+    }
+
+    private String deliver(TodoEvent event, NotificationPreferences preferences) {
+        if (digester.add(event, preferences, digestWindow(preferences))) {
+            return "digested";
+        }
+        sender.send(event, preferences);
+        return "processed";
+    }
+
+    private Duration digestWindow(NotificationPreferences preferences) {
+        if (preferences == null || preferences.getDigestWindowSeconds() == null) {
+            return defaultDigestWindow;
+        }
+        return Duration.ofSeconds(preferences.getDigestWindowSeconds());
+    }
+
+    private String skip(TodoEvent event) {
+        log.debug("Skipping {} event for todo {}: disabled by user {}", event.getType(), event.getTodoId(), event.getUserId());
+        return "skipped";
     }
 }
\ No newline at end of file
@@ -12,6 +12,9 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class TodoEvent {
+    @JsonProperty("eventId")
+    private String eventId;
+    
     @JsonProperty("eventType")
     private String type;
     
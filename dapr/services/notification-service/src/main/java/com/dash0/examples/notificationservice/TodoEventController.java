@@ -0,0 +1,59 @@
+package com.dash0.examples.notificationservice;
+
+import io.dapr.Topic;
+import io.dapr.client.domain.CloudEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * TodoEventController subscribes to todo events one CloudEvent per request; this is the default mode
+ */
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.notification.subscription.mode", havingValue = "single", matchIfMissing = true)
+public class TodoEventController {
+
+    private final NotificationPipeline pipeline;
+
+    /**
+     * Dapr PubSub event subscriber for todo events. Replies with a Dapr delivery status: SUCCESS once the
+     * event was processed or recognised as a redelivery, RETRY when processing failed or its lane was full,
+     * and DROP when the event has no data. Dapr retries non-2xx replies, so failures are reported with 200
+     * and a status.
+     */
+    @Topic(name = "todo-events", pubsubName = "todo-pubsub")
+    @PostMapping("/subscribe")
+    public Mono<ResponseEntity<Map<String, String>>> handleTodoEvent(@RequestBody CloudEvent<TodoEvent> cloudEvent) {
+        log.info("Received CloudEvent - ID: {}, Source: {}, Type: {}", 
+                 cloudEvent.getId(), cloudEvent.getSource(), cloudEvent.getType());
+        
+        TodoEvent todoEvent = cloudEvent.getData();
+        if (todoEvent != null) {
+            log.info("Processing todo event: {} for todo {}", todoEvent.getType(), todoEvent.getTodoId());
+            
+            return pipeline.submit(cloudEvent.getId(), todoEvent)
+                .map(result -> ResponseEntity.ok(Map.of("status", "SUCCESS")))
+                .onErrorResume(e -> {
+                    // Rejections are counted by the pipeline; only real failures are worth a stack trace
+                    if (e instanceof LaneFullException) {
+                        log.debug("Lane of todo {} is full, asking for a retry of CloudEvent {}", todoEvent.getTodoId(), cloudEvent.getId());
+                    } else if (e instanceof EventSkippedException) {
+                        log.debug("An earlier event of todo {} failed, asking for a retry of CloudEvent {}", todoEvent.getTodoId(), cloudEvent.getId());
+                    } else {
+                        log.warn("Failed to process CloudEvent {}, asking for a retry", cloudEvent.getId(), e);
+                    }
+                    return Mono.just(ResponseEntity.ok(Map.of("status", "RETRY")));
+                });
+        } else {
+            log.warn("Received CloudEvent with null data, dropping it");
+            return Mono.just(ResponseEntity.ok(Map.of("status", "DROP")));
+        }
+    }
+}
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.dash0.examples.notificationservice;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.Min;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -22,4 +23,8 @@ public class UserPreferencesRequest {
     
     @JsonProperty("emailNotifications")
     private boolean emailNotifications;
+    
+    @JsonProperty("digestWindowSeconds")
+    @Min(value = 0, message = "digestWindowSeconds must not be negative")
+    private Integer digestWindowSeconds;
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+package com.dash0.examples.notificationservice;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dapr.client.domain.BulkSubscribeAppResponseEntry;
+import io.dapr.client.domain.BulkSubscribeAppResponseStatus;
+import io.dapr.client.domain.BulkSubscribeMessage;
+import io.dapr.client.domain.BulkSubscribeMessageEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BulkTodoEventControllerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final List<String> processed = new CopyOnWriteArrayList<>();
+    private final NotificationPipeline pipeline =
+        new NotificationPipeline(notificationService, new SimpleMeterRegistry(), true, 1, 100, Duration.ofSeconds(5));
+    private final BulkTodoEventController controller = new BulkTodoEventController(pipeline, objectMapper);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.stop();
+    }
+
+    @Test
+    void retriesLaterEntriesOfATodoWhoseEntryFailed() {
+        when(notificationService.processDelivery(any(), any())).thenAnswer(invocation -> {
+            TodoEvent event = invocation.getArgument(1);
+            processed.add(event.getEventId());
+            return event.getEventId().equals("e1")
+                ? Mono.error(new IllegalStateException("preferences unavailable"))
+                : Mono.just("processed");
+        });
+        pipeline.start();
+
+        List<BulkSubscribeAppResponseEntry> statuses = controller.handleTodoEvents(new BulkSubscribeMessage<>(List.of(
+                entry("e1", "todo-1"), entry("e2", "todo-1"), entry("e3", "todo-2"), entry("e4", "todo-1")),
+                "todo-events", Map.of()))
+            .block(Duration.ofSeconds(5))
+            .getStatuses();
+
+        assertThat(statuses).extracting(BulkSubscribeAppResponseEntry::getStatus).containsExactly(
+            BulkSubscribeAppResponseStatus.RETRY, BulkSubscribeAppResponseStatus.RETRY,
+            BulkSubscribeAppResponseStatus.SUCCESS, BulkSubscribeAppResponseStatus.RETRY);
+        // The entries queued behind the failed one were skipped rather than processed ahead of its redelivery
+        assertThat(processed).containsExactly("e1", "e3");
+    }
+
+    @Test
+    void acceptsCloudEventsAndRawPayloads() {
+        List<String> cloudEventIds = new CopyOnWriteArrayList<>();
+        when(notificationService.processDelivery(any(), any())).thenAnswer(invocation -> {
+            cloudEventIds.add(invocation.getArgument(0));
+            processed.add(invocation.<TodoEvent>getArgument(1).getEventId());
+            return Mono.just("processed");
+        });
+        pipeline.start();
+        JsonNode cloudEvent = objectMapper.valueToTree(Map.of("id", "ce-1", "specversion", "1.0",
+            "data", Map.of("eventId", "e1", "eventType", "created", "todoId", "todo-1")));
+
+        List<BulkSubscribeAppResponseEntry> statuses = handle(
+            new BulkSubscribeMessageEntry<>("entry-e1", cloudEvent, "application/cloudevents+json", Map.of()),
+            entry("e2", "todo-2"));
+
+        assertThat(statuses).extracting(BulkSubscribeAppResponseEntry::getStatus)
+            .containsExactly(BulkSubscribeAppResponseStatus.SUCCESS, BulkSubscribeAppResponseStatus.SUCCESS);
+        assertThat(processed).containsExactlyInAnyOrder("e1", "e2");
+        assertThat(cloudEventIds).containsExactlyInAnyOrder("ce-1", null);
+    }
+
+    @Test
+    void dropsEntriesWithoutAUsableEvent() {
+        when(notificationService.processDelivery(any(), any())).thenReturn(Mono.just("processed"));
+        pipeline.start();
+        JsonNode withoutData = objectMapper.valueToTree(Map.of("id", "ce-1", "specversion", "1.0"));
+        JsonNode invalid = objectMapper.valueToTree(Map.of("eventId", "e2", "todoId", Map.of("not", "a string")));
+
+        List<BulkSubscribeAppResponseEntry> statuses = handle(
+            new BulkSubscribeMessageEntry<>("entry-null", objectMapper.nullNode(), "application/json", Map.of()),
+            new BulkSubscribeMessageEntry<>("entry-no-data", withoutData, "application/cloudevents+json", Map.of()),
+            new BulkSubscribeMessageEntry<>("entry-invalid", invalid, "application/json", Map.of()),
+            entry("e3", "todo-3"));
+
+        // A bad entry is dropped on its own; the rest of the batch is processed
+        assertThat(statuses).extracting(BulkSubscribeAppResponseEntry::getStatus).containsExactly(
+            BulkSubscribeAppResponseStatus.DROP, BulkSubscribeAppResponseStatus.DROP,
+            BulkSubscribeAppResponseStatus.DROP, BulkSubscribeAppResponseStatus.SUCCESS);
+    }
+
+    @SafeVarargs
+    private List<BulkSubscribeAppResponseEntry> handle(BulkSubscribeMessageEntry<JsonNode>... entries) {
+        return controller.handleTodoEvents(new BulkSubscribeMessage<>(List.of(entries), "todo-events", Map.of()))
+            .block(Duration.ofSeconds(5))
+            .getStatuses();
+    }
+
+    private BulkSubscribeMessageEntry<JsonNode> entry(String eventId, String todoId) {
+        JsonNode event = objectMapper.valueToTree(Map.of("eventId", eventId, "eventType", "created", "todoId", todoId));
+        return new BulkSubscribeMessageEntry<>("entry-" + eventId, event, "application/json", Map.of());
+    }
+}
@@ -0,0 +1,94 @@
+package com.dash0.examples.notificationservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventDeduplicatorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void claimsAnIdOnce() {
+        EventDeduplicator deduplicator = new EventDeduplicator(meterRegistry, Duration.ofHours(1), 6, 1200);
+
+        assertThat(deduplicator.tryClaim("event-1")).isTrue();
+        assertThat(deduplicator.tryClaim("event-2")).isTrue();
+        assertThat(deduplicator.tryClaim("event-1")).isFalse();
+        assertThat(meter("notification.dedup.duplicates")).isEqualTo(1);
+        assertThat(meter("notification.dedup.entries")).isEqualTo(2);
+    }
+
+    @Test
+    void releasedIdsCanBeClaimedAgain() {
+        EventDeduplicator deduplicator = new EventDeduplicator(meterRegistry, Duration.ofHours(1), 6, 1200);
+        deduplicator.tryClaim("event-1");
+
+        deduplicator.release("event-1");
+        deduplicator.release("never claimed");
+
+        assertThat(deduplicator.tryClaim("event-1")).isTrue();
+        assertThat(meter("notification.dedup.entries")).isEqualTo(1);
+    }
+
+    @Test
+    void releaseKeepsTheOtherIdsOfAProbeSequence() {
+        // Two buckets of 1000 ids in 2048 slots each, so probe sequences overlap a lot
+        EventDeduplicator deduplicator = new EventDeduplicator(meterRegistry, Duration.ofHours(1), 2, 2000);
+        List<String> claimed = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            claimed.add("event-" + i);
+            assertThat(deduplicator.tryClaim("event-" + i)).isTrue();
+        }
+        Random random = new Random(11);
+        List<String> released = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String eventId = claimed.remove(random.nextInt(claimed.size()));
+            deduplicator.release(eventId);
+            released.add(eventId);
+        }
+
+        assertThat(claimed).allMatch(eventId -> !deduplicator.tryClaim(eventId));
+        assertThat(released).allMatch(deduplicator::tryClaim);
+        assertThat(meter("notification.dedup.early-rotations")).isZero();
+    }
+
+    @Test
+    void forgetsIdsAfterTheWindow() throws InterruptedException {
+        EventDeduplicator deduplicator = new EventDeduplicator(meterRegistry, Duration.ofMillis(200), 2, 1000);
+        deduplicator.tryClaim("event-1");
+
+        Thread.sleep(250);
+
+        assertThat(deduplicator.tryClaim("event-1")).isTrue();
+    }
+
+    @Test
+    void rotatesEarlyWhenTheCurrentBucketIsFull() {
+        // Two buckets of two ids
+        EventDeduplicator deduplicator = new EventDeduplicator(meterRegistry, Duration.ofHours(1), 2, 4);
+        for (String eventId : List.of("a", "b", "c", "d")) {
+            deduplicator.tryClaim(eventId);
+        }
+        assertThat(meter("notification.dedup.early-rotations")).isEqualTo(1);
+
+        // Claiming a fifth id clears the bucket holding the oldest two
+        assertThat(deduplicator.tryClaim("e")).isTrue();
+
+        assertThat(meter("notification.dedup.early-rotations")).isEqualTo(2);
+        assertThat(deduplicator.tryClaim("c")).isFalse();
+        assertThat(deduplicator.tryClaim("d")).isFalse();
+        assertThat(deduplicator.tryClaim("a")).isTrue();
+    }
+
+    private double meter(String name) {
+        var meter = meterRegistry.get(name).meter();
+        return meter.measure().iterator().next().getValue();
+    }
+}
@@ -0,0 +1,98 @@
+package com.dash0.examples.notificationservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class NotificationDigesterTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(500);
+    private static final Duration LONG_WINDOW = Duration.ofHours(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotificationPreferences preferences = new NotificationPreferences();
+    private final List<List<String>> digests = new CopyOnWriteArrayList<>();
+    private final NotificationSender sender = new NotificationSender() {
+        @Override
+        public void sendDigest(List<TodoEvent> events, NotificationPreferences preferences) {
+            digests.add(events.stream().map(TodoEvent::getEventId).toList());
+        }
+    };
+    private NotificationDigester digester = new NotificationDigester(sender, meterRegistry, 10000);
+
+    @AfterEach
+    void tearDown() {
+        digester.stop();
+    }
+
+    @Test
+    void sendsTheEventsOfAWindowAsOneDigestInOrder() {
+        assertThat(digester.add(event("e1", "todo-1"), preferences, WINDOW)).isTrue();
+        assertThat(digester.add(event("e2", "todo-1"), preferences, WINDOW)).isTrue();
+        assertThat(digester.add(event("e3", "todo-1"), preferences, WINDOW)).isTrue();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> !digests.isEmpty());
+        assertThat(digests).containsExactly(List.of("e1", "e2", "e3"));
+        assertThat(meterRegistry.get("notification.digest.coalesced").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsDigestsOfATodoInOrderAcrossWindows() {
+        digester.add(event("e1", "todo-1"), preferences, WINDOW);
+        await().atMost(Duration.ofSeconds(5)).until(() -> digests.size() == 1);
+        digester.add(event("e2", "todo-1"), preferences, WINDOW);
+        digester.add(event("e3", "todo-1"), preferences, WINDOW);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> digests.size() == 2);
+        assertThat(digests).containsExactly(List.of("e1"), List.of("e2", "e3"));
+    }
+
+    @Test
+    void appendsToAnOpenDigestWhateverTheWindow() {
+        // Without a digest, a zero window means the caller sends the event itself
+        assertThat(digester.add(event("e1", "todo-1"), preferences, Duration.ZERO)).isFalse();
+
+        digester.add(event("e2", "todo-1"), preferences, LONG_WINDOW);
+        // Sending e3 directly would put it ahead of e2
+        assertThat(digester.add(event("e3", "todo-1"), preferences, Duration.ZERO)).isTrue();
+        assertThat(digester.add(event("e4", "todo-2"), preferences, Duration.ZERO)).isFalse();
+
+        digester.stop();
+        assertThat(digests).containsExactly(List.of("e2", "e3"));
+    }
+
+    @Test
+    void refusesNewDigestsBeyondMaxPending() {
+        digester = new NotificationDigester(sender, meterRegistry, 1);
+
+        assertThat(digester.add(event("e1", "todo-1"), preferences, LONG_WINDOW)).isTrue();
+        assertThat(digester.add(event("e2", "todo-2"), preferences, LONG_WINDOW)).isFalse();
+        assertThat(digester.add(event("e3", "todo-1"), preferences, LONG_WINDOW)).isTrue();
+    }
+
+    @Test
+    void flushesOpenDigestsOnStop() {
+        digester.add(event("e1", "todo-1"), preferences, LONG_WINDOW);
+        digester.add(event("e2", "todo-2"), preferences, LONG_WINDOW);
+
+        digester.stop();
+
+        assertThat(digests).containsExactlyInAnyOrder(List.of("e1"), List.of("e2"));
+    }
+
+    private static TodoEvent event(String eventId, String todoId) {
+        TodoEvent event = new TodoEvent();
+        event.setEventId(eventId);
+        event.setType("updated");
+        event.setTodoId(todoId);
+        event.setUserId("user-1");
+        return event;
+    }
+}
@@ -0,0 +1,88 @@
+package com.dash0.examples.notificationservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NotificationPipelineTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final List<String> processed = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirst = new CountDownLatch(1);
+    private final NotificationPipeline pipeline =
+        new NotificationPipeline(notificationService, meterRegistry, true, 1, 1, Duration.ofSeconds(5));
+
+    NotificationPipelineTest() {
+        // The first event holds its lane until released
+        when(notificationService.processDelivery(any(), any())).thenAnswer(invocation -> {
+            TodoEvent event = invocation.getArgument(1);
+            if (processed.isEmpty()) {
+                firstStarted.countDown();
+                releaseFirst.await(5, TimeUnit.SECONDS);
+            }
+            processed.add(event.getEventId());
+            return Mono.just("processed");
+        });
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        releaseFirst.countDown();
+        pipeline.stop();
+    }
+
+    @Test
+    void rejectsEventsWhenTheLaneIsFull() throws InterruptedException {
+        var first = pipeline.submit("ce-1", event("e1", "todo-1")).toFuture();
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        var queued = pipeline.submit("ce-2", event("e2", "todo-1")).toFuture();
+
+        // The lane holds one queued event; the next one of the lane is rejected at once
+        assertThatThrownBy(() -> pipeline.submit("ce-3", event("e3", "todo-2")).block(TIMEOUT))
+            .isInstanceOf(LaneFullException.class);
+        assertThat(meterRegistry.get("notification.pipeline.rejected").counter().count()).isEqualTo(1);
+
+        releaseFirst.countDown();
+        assertThat(first.join()).isEqualTo("processed");
+        assertThat(queued.join()).isEqualTo("processed");
+        assertThat(processed).containsExactly("e1", "e2");
+    }
+
+    @Test
+    void skipsQueuedEventsWhoseSubmitterGaveUp() throws InterruptedException {
+        var first = pipeline.submit("ce-1", event("e1", "todo-1")).toFuture();
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        var skipped = pipeline.submit("ce-2", event("e2", "todo-1"), () -> true).toFuture();
+
+        releaseFirst.countDown();
+        assertThat(first.join()).isEqualTo("processed");
+        assertThatThrownBy(skipped::join).hasCauseInstanceOf(EventSkippedException.class);
+        assertThat(processed).containsExactly("e1");
+    }
+
+    private static TodoEvent event(String eventId, String todoId) {
+        TodoEvent event = new TodoEvent();
+        event.setEventId(eventId);
+        event.setType("created");
+        event.setTodoId(todoId);
+        return event;
+    }
+}
@@ -0,0 +1,152 @@
+package com.dash0.examples.notificationservice;
+
+import io.dapr.client.DaprClient;
+import io.dapr.client.domain.State;
+import io.dapr.client.domain.StateOptions;
+import io.dapr.exceptions.DaprException;
+import io.grpc.Status;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationPreferencesStoreTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final Map<String, NotificationPreferences> states = new ConcurrentHashMap<>();
+    private final Map<String, String> etags = new ConcurrentHashMap<>();
+    private final AtomicInteger reads = new AtomicInteger();
+    private final AtomicInteger conflicts = new AtomicInteger();
+    private volatile CountDownLatch readGate = new CountDownLatch(0);
+    private final NotificationPreferencesStore store =
+        new NotificationPreferencesStore(daprClient(), new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+
+    @Test
+    void cachesUsersWithoutPreferences() {
+        assertThat(store.get("user-1").blockOptional(TIMEOUT)).isEmpty();
+        assertThat(store.get("user-1").blockOptional(TIMEOUT)).isEmpty();
+
+        assertThat(reads).hasValue(1);
+    }
+
+    @Test
+    void sharesOneReadBetweenConcurrentMisses() {
+        states.put("preferences-user-1", preferences("user-1", List.of("created")));
+
+        List<NotificationPreferences> results = Flux.range(0, 10)
+            .flatMap(i -> store.get("user-1"))
+            .collectList()
+            .block(TIMEOUT);
+
+        assertThat(results).hasSize(10).allMatch(preferences -> preferences.getEnabledEvents().equals(List.of("created")));
+        assertThat(reads).hasValue(1);
+    }
+
+    @Test
+    void replacesTheCachedEntryOnSave() {
+        assertThat(store.get("user-1").blockOptional(TIMEOUT)).isEmpty();
+        UserPreferencesRequest request = new UserPreferencesRequest();
+        request.setEmail("user-1@example.com");
+        request.setEnabledEvents(List.of("deleted"));
+
+        store.save("user-1", request).block(TIMEOUT);
+
+        int readsAfterSave = reads.get();
+        assertThat(store.get("user-1").block(TIMEOUT).getEnabledEvents()).containsExactly("deleted");
+        assertThat(reads).hasValue(readsAfterSave);
+        assertThat(states.get("preferences-user-1").getEmail()).isEqualTo("user-1@example.com");
+    }
+
+    @Test
+    void retriesConcurrentSavesThatConflict() {
+        // Both saves read the missing key before either of them writes it
+        readGate = new CountDownLatch(2);
+        List<NotificationPreferences> saved = Flux.merge(
+                store.save("user-1", request("first@example.com")),
+                store.save("user-1", request("second@example.com")))
+            .collectList()
+            .block(TIMEOUT);
+
+        assertThat(conflicts).hasValue(1);
+        assertThat(saved).hasSize(2);
+        // The retried save read the other one's preferences and kept their creation time
+        assertThat(saved.get(1).getCreatedAt()).isEqualTo(saved.get(0).getCreatedAt());
+        assertThat(states.get("preferences-user-1").getEmail()).isEqualTo(saved.get(1).getEmail());
+    }
+
+    private static UserPreferencesRequest request(String email) {
+        UserPreferencesRequest request = new UserPreferencesRequest();
+        request.setEmail(email);
+        request.setEnabledEvents(List.of("created"));
+        return request;
+    }
+
+    private static NotificationPreferences preferences(String userId, List<String> enabledEvents) {
+        NotificationPreferences preferences = new NotificationPreferences();
+        preferences.setUserId(userId);
+        preferences.setEnabledEvents(enabledEvents);
+        return preferences;
+    }
+
+    private DaprClient daprClient() {
+        return (DaprClient) Proxy.newProxyInstance(
+            DaprClient.class.getClassLoader(),
+            new Class<?>[] {DaprClient.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getState" -> getState((String) args[1]);
+                case "saveState" -> saveState((String) args[1], (String) args[2], (NotificationPreferences) args[3],
+                    (StateOptions) args[4]);
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    private Mono<State<NotificationPreferences>> getState(String key) {
+        // Slow enough for concurrent misses to overlap
+        return Mono.delay(Duration.ofMillis(50))
+            .then(Mono.fromCallable(() -> {
+                State<NotificationPreferences> state;
+                synchronized (this) {
+                    reads.incrementAndGet();
+                    state = new State<>(key, states.get(key), etags.getOrDefault(key, ""));
+                }
+                CountDownLatch gate = readGate;
+                gate.countDown();
+                gate.await(5, TimeUnit.SECONDS);
+                return state;
+            }).subscribeOn(Schedulers.boundedElastic()));
+    }
+
+    /**
+     * Checks ETags like the sidecar: an ETag must match the stored one, a first write without one needs the
+     * key to be absent.
+     */
+    private Mono<Void> saveState(String key, String etag, NotificationPreferences value, StateOptions options) {
+        return Mono.fromRunnable(() -> {
+            synchronized (this) {
+                boolean firstWrite = options != null && options.getConcurrency() == StateOptions.Concurrency.FIRST_WRITE;
+                boolean mismatch = etag != null ? !etag.equals(etags.get(key)) : firstWrite && states.containsKey(key);
+                if (mismatch) {
+                    conflicts.incrementAndGet();
+                    throw DaprException.propagate(Status.ABORTED
+                        .withDescription("failed saving state in state store notification-statestore: possible etag mismatch")
+                        .asRuntimeException());
+                }
+                states.put(key, value);
+                etags.merge(key, "1", (previous, first) -> Integer.toString(Integer.parseInt(previous) + 1));
+            }
+        });
+    }
+}
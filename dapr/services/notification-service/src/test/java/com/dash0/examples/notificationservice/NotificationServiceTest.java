@@ -0,0 +1,66 @@
+package com.dash0.examples.notificationservice;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NotificationServiceTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final NotificationPreferencesStore preferencesStore = mock(NotificationPreferencesStore.class);
+    private final NotificationSender sender = mock(NotificationSender.class);
+    private final NotificationDigester digester = new NotificationDigester(sender, meterRegistry, 100);
+    // Digests disabled by default, so notifications are sent right away
+    private final NotificationService notificationService = new NotificationService(preferencesStore, sender, digester,
+        new EventDeduplicator(meterRegistry, Duration.ofHours(1), 6, 1200), Duration.ZERO);
+
+    @AfterEach
+    void tearDown() {
+        digester.stop();
+    }
+
+    @Test
+    void notifiesOnlyAboutEnabledEventTypes() {
+        NotificationPreferences preferences = new NotificationPreferences();
+        preferences.setUserId("user-1");
+        preferences.setEnabledEvents(List.of("created"));
+        when(preferencesStore.get("user-1")).thenReturn(Mono.just(preferences));
+
+        assertThat(notificationService.processTodoEvent(event("updated", "user-1")).block(TIMEOUT)).isEqualTo("skipped");
+        verify(sender, never()).send(any(), any());
+
+        TodoEvent created = event("created", "user-1");
+        assertThat(notificationService.processTodoEvent(created).block(TIMEOUT)).isEqualTo("processed");
+        verify(sender).send(created, preferences);
+    }
+
+    @Test
+    void notifiesUsersWithoutPreferencesAboutEveryEvent() {
+        when(preferencesStore.get("user-2")).thenReturn(Mono.empty());
+
+        TodoEvent event = event("deleted", "user-2");
+        assertThat(notificationService.processTodoEvent(event).block(TIMEOUT)).isEqualTo("processed");
+        verify(sender).send(event, null);
+    }
+
+    private static TodoEvent event(String type, String userId) {
+        TodoEvent event = new TodoEvent();
+        event.setType(type);
+        event.setTodoId("todo-1");
+        event.setUserId(userId);
+        return event;
+    }
+}
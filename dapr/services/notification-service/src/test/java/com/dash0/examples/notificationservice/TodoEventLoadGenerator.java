@@ -0,0 +1,122 @@
+package com.dash0.examples.notificationservice;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator that plays the Dapr sidecar: keeps {@code concurrency} deliveries in flight
+ * for {@code duration} seconds and prints how many todo events per second were accepted. In {@code single}
+ * mode every request carries one CloudEvent to {@code /subscribe}; in {@code bulk} mode every request
+ * carries {@code batchSize} entries to {@code /subscribe/bulk}. Start the service with the matching
+ * {@code app.notification.subscription.mode}. With {@code todos} set, events cycle over that many todos,
+ * so that the same todo changes many times in a row; by default every event is for a new todo.
+ *
+ * Run with:
+ * <pre>
+ * java -cp target/test-classes com.dash0.examples.notificationservice.TodoEventLoadGenerator \
+ *     http://localhost:8082 bulk 100 16 30
+ * </pre>
+ */
+public class TodoEventLoadGenerator {
+
+    private static final String[] EVENT_TYPES = {"created", "updated", "deleted"};
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8082";
+        boolean bulk = args.length > 1 && args[1].equals("bulk");
+        int batchSize = bulk && args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+        Duration duration = Duration.ofSeconds(args.length > 4 ? Long.parseLong(args[4]) : 30);
+        Duration warmup = Duration.ofSeconds(args.length > 5 ? Long.parseLong(args[5]) : 10);
+        long todos = args.length > 6 ? Long.parseLong(args[6]) : 0;
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        URI uri = URI.create(baseUrl + (bulk ? "/subscribe/bulk" : "/subscribe"));
+
+        System.out.printf("Warming up for %ds...%n", warmup.toSeconds());
+        run(client, uri, bulk, batchSize, todos, concurrency, warmup);
+        System.out.printf("Measuring %s deliveries of %d events, %d in flight, for %ds...%n",
+            bulk ? "bulk" : "single", batchSize, concurrency, duration.toSeconds());
+        Result result = run(client, uri, bulk, batchSize, todos, concurrency, duration);
+
+        long events = result.requests.get() * batchSize;
+        System.out.printf("requests=%d errors=%d events=%d throughput=%.0f events/s%n",
+            result.requests.get(), result.errors.get(), events, events / (double) duration.toSeconds());
+    }
+
+    private static Result run(HttpClient client, URI uri, boolean bulk, int batchSize, long todos, int concurrency,
+                              Duration duration) throws InterruptedException {
+        Result result = new Result();
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            send(client, uri, bulk, batchSize, todos, deadline, result, done);
+        }
+        done.await();
+        return result;
+    }
+
+    /**
+     * Send one delivery and, when it completes, the next one on the same slot until the deadline passes.
+     */
+    private static void send(HttpClient client, URI uri, boolean bulk, int batchSize, long todos, long deadline,
+                             Result result, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        long first = result.sequence.getAndAdd(batchSize);
+        String body = bulk ? bulkMessage(first, batchSize, todos) : cloudEvent(first, todos);
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .header("Content-Type", bulk ? "application/json" : "application/cloudevents+json")
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .whenComplete((response, error) -> {
+                if (error != null || response.statusCode() != 200 || (bulk && response.body().contains("RETRY"))) {
+                    result.errors.incrementAndGet();
+                } else {
+                    result.requests.incrementAndGet();
+                }
+                send(client, uri, bulk, batchSize, todos, deadline, result, done);
+            });
+    }
+
+    private static String bulkMessage(long first, int batchSize, long todos) {
+        StringBuilder body = new StringBuilder(batchSize * 512);
+        body.append("{\"id\":\"").append(first).append("\",\"topic\":\"todo-events\",\"pubsubname\":\"todo-pubsub\",")
+            .append("\"type\":\"com.dapr.event.sent.bulk\",\"metadata\":{},\"entries\":[");
+        for (int i = 0; i < batchSize; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append("{\"entryId\":\"").append(first + i).append("\",\"contentType\":\"application/cloudevents+json\",")
+                .append("\"metadata\":{},\"event\":").append(cloudEvent(first + i, todos)).append('}');
+        }
+        return body.append("]}").toString();
+    }
+
+    private static String cloudEvent(long sequence, long todos) {
+        String todoId = "todo-" + (todos > 0 ? sequence % todos : sequence);
+        return "{\"id\":\"event-" + sequence + "\",\"source\":\"todo-service\",\"type\":\"com.dapr.event.sent\","
+            + "\"specversion\":\"1.0\",\"datacontenttype\":\"application/json\",\"topic\":\"todo-events\","
+            + "\"pubsubname\":\"todo-pubsub\",\"data\":{\"eventType\":\"" + EVENT_TYPES[(int) (sequence % EVENT_TYPES.length)]
+            + "\",\"todoId\":\"" + todoId + "\",\"todoName\":\"Buy groceries\",\"timestamp\":\"2025-01-01T12:00:00\","
+            + "\"userId\":\"user-" + (sequence % 100) + "\",\"validatedBy\":\"validation-service\"}}";
+    }
+
+    private static final class Result {
+        final AtomicLong sequence = new AtomicLong();
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+    }
+}
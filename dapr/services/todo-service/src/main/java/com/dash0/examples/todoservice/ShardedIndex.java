@@ -0,0 +1,285 @@
+package com.dash0.examples.todoservice;
+
+import io.dapr.client.DaprClient;
+import io.dapr.client.domain.State;
+import io.dapr.client.domain.StateOptions;
+import io.dapr.client.domain.TransactionalStateOperation;
+import io.dapr.utils.TypeRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Sharded set of IDs kept in the Dapr state store.
+ *
+ * IDs are hash-bucketed over a fixed number of keys ({@code <prefix>0} .. {@code <prefix>N}),
+ * so a write only rewrites the shards it touches. Shard updates are handed out as state transaction
+ * operations guarded by the shard's ETag; callers retry the whole transaction on conflict
+ * (see {@link #conflictRetry()}), so concurrent writers never drop IDs.
+ *
+ * A shard can also hold attachments of its IDs, entries of the form {@code <id>/<suffix>}. They are
+ * stored in the shard of their ID, so they can be added in the same shard update as the ID itself,
+ * and are left out of everything that reads IDs; see {@link #streamAttachmentsByShard()}.
+ */
+public class ShardedIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedIndex.class);
+    private static final String STATE_STORE_NAME = "todo-statestore";
+    private static final TypeRef<Set<String>> SHARD_TYPE = new TypeRef<Set<String>>() {};
+    private static final char ATTACHMENT_SEPARATOR = '/';
+    private static final StateOptions FIRST_WRITE =
+        new StateOptions(StateOptions.Consistency.STRONG, StateOptions.Concurrency.FIRST_WRITE);
+
+    private final DaprClient daprClient;
+    private final String keyPrefix;
+    private final int shardCount;
+    private final int maxRetries;
+
+    public ShardedIndex(DaprClient daprClient, String keyPrefix, int shardCount, int maxRetries) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count of " + keyPrefix + "* must be at least 1");
+        }
+        this.daprClient = daprClient;
+        this.keyPrefix = keyPrefix;
+        this.shardCount = shardCount;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Build the operations that apply the given additions and removals to their shards, for use in a
+     * state transaction. Each affected shard is read once; shards left unchanged produce no operation.
+     */
+    public Mono<List<TransactionalStateOperation<?>>> prepareChanges(Collection<String> added,
+                                                                      Collection<String> removed) {
+        Map<Integer, ShardChanges> changesByShard = new HashMap<>();
+        added.forEach(id -> changesByShard.computeIfAbsent(shardOf(id), shard -> new ShardChanges()).added.add(id));
+        removed.forEach(id -> changesByShard.computeIfAbsent(shardOf(id), shard -> new ShardChanges()).removed.add(id));
+
+        return Flux.fromIterable(changesByShard.entrySet())
+            .flatMap(entry -> loadShard(entry.getKey())
+                .flatMap(state -> {
+                    Set<String> ids = state.getValue() != null ? new HashSet<>(state.getValue()) : new HashSet<>();
+                    boolean changed = ids.addAll(entry.getValue().added) | ids.removeAll(entry.getValue().removed);
+                    if (!changed) {
+                        return Mono.empty();
+                    }
+                    State<Set<String>> shardState =
+                        new State<>(shardKey(entry.getKey()), ids, etagOf(state), FIRST_WRITE);
+                    return Mono.<TransactionalStateOperation<?>>just(new TransactionalStateOperation<>(
+                        TransactionalStateOperation.OperationType.UPSERT, shardState));
+                }))
+            .collectList();
+    }
+
+    /**
+     * Retry policy for transactions that include shard operations: back off and retry on ETag conflicts only.
+     * The retried publisher must re-run {@link #prepareChanges} so shards are re-read.
+     */
+    public Retry conflictRetry() {
+        return Retry.backoff(maxRetries, Duration.ofMillis(10))
+            .maxBackoff(Duration.ofMillis(500))
+            .filter(StateConflicts::isEtagConflict)
+            .doBeforeRetry(signal ->
+                log.debug("ETag conflict on {}* shard, retry #{}", keyPrefix, signal.totalRetries() + 1));
+    }
+
+    /**
+     * Move the ids stored as one set under {@code key} into the shards and delete the key, in one
+     * transaction guarded by the key's ETag, so concurrent callers move them only once. Emits the number
+     * of ids moved, 0 if the key does not exist.
+     */
+    public Mono<Integer> absorb(String key) {
+        return Mono.defer(() -> daprClient.getState(STATE_STORE_NAME, key, SHARD_TYPE)
+                .flatMap(state -> {
+                    if (etagOf(state) == null && state.getValue() == null) {
+                        return Mono.just(0);
+                    }
+                    Set<String> ids = state.getValue() != null ? state.getValue() : Set.of();
+                    return prepareChanges(ids, List.of())
+                        .flatMap(shardOperations -> {
+                            List<TransactionalStateOperation<?>> operations = new ArrayList<>(shardOperations);
+                            operations.add(new TransactionalStateOperation<>(TransactionalStateOperation.OperationType.DELETE,
+                                new State<>(key, null, etagOf(state), FIRST_WRITE)));
+                            return daprClient.executeStateTransaction(STATE_STORE_NAME, operations);
+                        })
+                        .thenReturn(ids.size());
+                }))
+            .retryWhen(conflictRetry());
+    }
+
+    /**
+     * Load the ids of all shards in parallel. Fails if any shard can't be loaded, rather than
+     * returning the ids of the others.
+     */
+    public Mono<Set<String>> findAllIds() {
+        return Flux.range(0, shardCount)
+            .flatMap(shard -> loadShard(shard)
+                .map(state -> state.getValue() != null ? idsOf(state.getValue()) : Set.<String>of())
+                .doOnError(error -> log.error("Failed to load shard {}{}: {}", keyPrefix, shard, error.getMessage())))
+            .collect(HashSet::new, Set::addAll);
+    }
+
+    /**
+     * Count ids from the shard sizes, without loading any todo.
+     */
+    public Mono<Long> countIds() {
+        return Flux.range(0, shardCount)
+            .flatMap(shard -> loadShard(shard)
+                .map(state -> state.getValue() != null ? state.getValue().stream().filter(ShardedIndex::isId).count() : 0L))
+            .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Emit the attachments of one shard at a time, skipping shards without any.
+     */
+    public Flux<List<String>> streamAttachmentsByShard() {
+        return Flux.range(0, shardCount)
+            .concatMap(shard -> loadShard(shard)
+                .map(state -> state.getValue() == null ? List.<String>of()
+                    : state.getValue().stream().filter(entry -> !isId(entry)).toList()))
+            .filter(attachments -> !attachments.isEmpty());
+    }
+
+    /**
+     * Emit the sorted ids of one shard at a time, so callers only ever hold a single shard in memory.
+     */
+    public Flux<List<String>> streamIdsByShard() {
+        return Flux.range(0, shardCount)
+            .concatMap(shard -> loadSortedShard(shard).map(ids -> (List<String>) new ArrayList<>(ids)))
+            .filter(ids -> !ids.isEmpty());
+    }
+
+    /**
+     * Read one page of ids in (shard, id) order, starting after the position encoded in {@code pageToken}.
+     * Shards are loaded one by one and only as far as needed to fill the page.
+     */
+    public Mono<IdPage> findIdPage(String pageToken, int pageSize) {
+        Cursor cursor = pageToken == null || pageToken.isEmpty() ? new Cursor(0, null) : Cursor.decode(pageToken);
+        if (cursor.shard() >= shardCount) {
+            return Mono.error(new IllegalArgumentException("Invalid page token"));
+        }
+        return collectPage(cursor.shard(), cursor.afterId(), pageSize, new ArrayList<>(pageSize));
+    }
+
+    private Mono<IdPage> collectPage(int shard, String afterId, int pageSize, List<String> ids) {
+        if (shard >= shardCount) {
+            return Mono.just(new IdPage(ids, null));
+        }
+        return loadSortedShard(shard).flatMap(sorted -> {
+            for (String id : afterId == null ? sorted : sorted.tailSet(afterId, false)) {
+                ids.add(id);
+                if (ids.size() == pageSize) {
+                    return Mono.just(new IdPage(ids, new Cursor(shard, id).encode()));
+                }
+            }
+            return collectPage(shard + 1, null, pageSize, ids);
+        });
+    }
+
+    /**
+     * Shard an id, or an attachment of the id, is stored in. Stable for a given shard count, so
+     * the shard count must not change once data exists.
+     */
+    int shardOf(String entry) {
+        int separator = entry.indexOf(ATTACHMENT_SEPARATOR);
+        String id = separator < 0 ? entry : entry.substring(0, separator);
+        return Math.floorMod(id.hashCode(), shardCount);
+    }
+
+    /**
+     * The entry that attaches {@code suffix} to {@code id}.
+     */
+    public static String attachment(String id, String suffix) {
+        return id + ATTACHMENT_SEPARATOR + suffix;
+    }
+
+    /**
+     * The suffix of an attachment.
+     */
+    public static String suffixOf(String attachment) {
+        return attachment.substring(attachment.indexOf(ATTACHMENT_SEPARATOR) + 1);
+    }
+
+    String shardKey(int shard) {
+        return keyPrefix + shard;
+    }
+
+    private Mono<State<Set<String>>> loadShard(int shard) {
+        return daprClient.getState(STATE_STORE_NAME, shardKey(shard), SHARD_TYPE);
+    }
+
+    private Mono<NavigableSet<String>> loadSortedShard(int shard) {
+        return loadShard(shard)
+            .map(state -> state.getValue() != null ? new TreeSet<>(idsOf(state.getValue())) : new TreeSet<>());
+    }
+
+    private static Set<String> idsOf(Set<String> entries) {
+        Set<String> ids = new HashSet<>(entries);
+        ids.removeIf(entry -> !isId(entry));
+        return ids;
+    }
+
+    private static boolean isId(String entry) {
+        return entry.indexOf(ATTACHMENT_SEPARATOR) < 0;
+    }
+
+    /**
+     * Dapr reports a missing key with an empty ETag; a null ETag makes a first-write insert-only.
+     */
+    static String etagOf(State<?> state) {
+        String etag = state.getEtag();
+        return etag == null || etag.isEmpty() ? null : etag;
+    }
+
+    private static final class ShardChanges {
+        private final Set<String> added = new HashSet<>();
+        private final Set<String> removed = new HashSet<>();
+    }
+
+    /**
+     * A page of ids plus the token to continue from, or {@code null} when the index is exhausted.
+     */
+    public record IdPage(List<String> ids, String nextPageToken) {
+    }
+
+    /**
+     * Position in the index: the shard being read and the last id returned from it.
+     * Encoded as an opaque URL-safe token.
+     */
+    record Cursor(int shard, String afterId) {
+
+        String encode() {
+            String raw = shard + ":" + afterId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.indexOf(':');
+                int shard = Integer.parseInt(raw.substring(0, separator));
+                if (shard < 0) {
+                    throw new IllegalArgumentException("negative shard");
+                }
+                return new Cursor(shard, raw.substring(separator + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid page token", e);
+            }
+        }
+    }
+}
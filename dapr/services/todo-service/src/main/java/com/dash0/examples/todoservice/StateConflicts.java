@@ -0,0 +1,34 @@
+package com.dash0.examples.todoservice;
+
+import io.dapr.exceptions.DaprException;
+
+import java.util.Locale;
+
+/**
+ * Recognises ETag conflicts in errors returned by Dapr state transactions.
+ *
+ * A transaction fails as a whole with ERR_STATE_TRANSACTION (gRPC status INTERNAL) whatever the cause,
+ * so the store's "possible etag mismatch" error in the message tells a conflict from other failures.
+ */
+final class StateConflicts {
+
+    private static final String ETAG_MISMATCH = "etag mismatch";
+
+    private StateConflicts() {
+    }
+
+    /**
+     * Whether a state transaction failed because an ETag did not match.
+     */
+    static boolean isEtagConflict(Throwable error) {
+        if (!(error instanceof DaprException daprException)) {
+            return false;
+        }
+        String code = daprException.getErrorCode();
+        if (!"INTERNAL".equals(code) && !"ERR_STATE_TRANSACTION".equals(code)) {
+            return false;
+        }
+        String message = daprException.getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(ETAG_MISMATCH);
+    }
+}
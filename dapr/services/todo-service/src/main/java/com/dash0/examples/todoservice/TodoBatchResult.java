@@ -0,0 +1,77 @@
+package com.dash0.examples.todoservice;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk create: the todos that were created and the names that failed validation.
+ */
+public class TodoBatchResult {
+
+    @JsonProperty("created")
+    private List<Todo> created;
+
+    @JsonProperty("rejected")
+    private List<RejectedTodo> rejected;
+
+    public TodoBatchResult() {
+    }
+
+    public TodoBatchResult(List<Todo> created, List<RejectedTodo> rejected) {
+        this.created = created;
+        this.rejected = rejected;
+    }
+
+    public List<Todo> getCreated() {
+        return created;
+    }
+
+    public void setCreated(List<Todo> created) {
+        this.created = created;
+    }
+
+    public List<RejectedTodo> getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(List<RejectedTodo> rejected) {
+        this.rejected = rejected;
+    }
+
+    /**
+     * A name that was not created, with the reason given by the validation service.
+     */
+    public static class RejectedTodo {
+
+        @JsonProperty("name")
+        private String name;
+
+        @JsonProperty("reason")
+        private String reason;
+
+        public RejectedTodo() {
+        }
+
+        public RejectedTodo(String name, String reason) {
+            this.name = name;
+            this.reason = reason;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+    }
+}
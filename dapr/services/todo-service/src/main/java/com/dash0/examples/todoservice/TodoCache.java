@@ -0,0 +1,143 @@
+package com.dash0.examples.todoservice;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.dapr.client.DaprClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Read-through, write-through cache of todos in front of the Dapr state store.
+ *
+ * Entries are bounded by size and expire after a TTL. Once an entry is older than the revalidation
+ * interval, the next read still serves it but re-reads the key in the background; the cached todo
+ * is only replaced if the ETag changed. Hit, miss and eviction metrics are published as
+ * {@code cache.*} meters with {@code cache=todos}.
+ *
+ * Local writes are broadcast through {@link TodoCacheInvalidator} so other replicas evict their
+ * copies; {@link #evictLocally} applies invalidations received from them.
+ */
+@Component
+public class TodoCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoCache.class);
+    private static final String STATE_STORE_NAME = "todo-statestore";
+    private static final String TODO_KEY_PREFIX = "todo-";
+
+    private final DaprClient daprClient;
+    private final TodoCacheInvalidator invalidator;
+    private final AsyncLoadingCache<String, CachedTodo> cache;
+
+    public TodoCache(DaprClient daprClient,
+                     TodoCacheInvalidator invalidator,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.todo.cache.max-size:10000}") long maxSize,
+                     @Value("${app.todo.cache.ttl:10m}") Duration ttl,
+                     @Value("${app.todo.cache.revalidate-after:30s}") Duration revalidateAfter) {
+        this.daprClient = daprClient;
+        this.invalidator = invalidator;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .refreshAfterWrite(revalidateAfter)
+            .recordStats()
+            .buildAsync(new Loader());
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "todos");
+    }
+
+    /**
+     * Get a todo, loading it from the state store on a miss. Concurrent misses for the same id share one read.
+     */
+    public Mono<Todo> get(String id) {
+        return Mono.fromFuture(() -> cache.get(id))
+            .map(cached -> copyOf(cached.todo()));
+    }
+
+    /**
+     * Store a todo that was just written. Its new ETag is unknown, so the next revalidation replaces it.
+     */
+    public void put(Todo todo) {
+        putAll(List.of(todo));
+    }
+
+    /**
+     * Store todos that were just written, announcing them to other replicas in one message.
+     */
+    public void putAll(Collection<Todo> todos) {
+        todos.forEach(todo ->
+            cache.put(todo.getId(), CompletableFuture.completedFuture(new CachedTodo(copyOf(todo), null))));
+        invalidator.publish(todos.stream().map(Todo::getId).toList());
+    }
+
+    /**
+     * Drop a todo, e.g. after it was deleted or a write failed.
+     */
+    public void invalidate(String id) {
+        invalidateAll(List.of(id));
+    }
+
+    /**
+     * Drop todos here and on all other replicas.
+     */
+    public void invalidateAll(Collection<String> ids) {
+        evictLocally(ids);
+        invalidator.publish(ids);
+    }
+
+    /**
+     * Drop todos from this replica only, for invalidations received from other replicas.
+     */
+    public void evictLocally(Collection<String> ids) {
+        cache.synchronous().invalidateAll(ids);
+    }
+
+    private Mono<CachedTodo> load(String id) {
+        return daprClient.getState(STATE_STORE_NAME, TODO_KEY_PREFIX + id, Todo.class)
+            .filter(state -> state.getValue() != null)
+            .map(state -> new CachedTodo(state.getValue(), ShardedIndex.etagOf(state)));
+    }
+
+    /**
+     * Callers may mutate the todos they get back, so the cache never hands out its own instances.
+     */
+    private static Todo copyOf(Todo todo) {
+        return new Todo(todo.getId(), todo.getName(), todo.getCompleted(), todo.getCreatedAt(), todo.getUpdatedAt());
+    }
+
+    private record CachedTodo(Todo todo, String etag) {
+    }
+
+    private final class Loader implements AsyncCacheLoader<String, CachedTodo> {
+
+        @Override
+        public CompletableFuture<CachedTodo> asyncLoad(String id, Executor executor) {
+            return load(id).toFuture();
+        }
+
+        @Override
+        public CompletableFuture<CachedTodo> asyncReload(String id, CachedTodo oldValue, Executor executor) {
+            return load(id)
+                .map(fresh -> {
+                    if (fresh.etag() != null && Objects.equals(fresh.etag(), oldValue.etag())) {
+                        return oldValue;
+                    }
+                    log.debug("Revalidated todo {} with a new ETag", id);
+                    return fresh;
+                })
+                .toFuture();
+        }
+    }
+}
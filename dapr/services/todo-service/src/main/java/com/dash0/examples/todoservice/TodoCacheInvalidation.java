@@ -0,0 +1,49 @@
+package com.dash0.examples.todoservice;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Message telling other todo-service replicas to drop todos from their local cache.
+ */
+public class TodoCacheInvalidation {
+
+    @JsonProperty("origin")
+    private String origin;
+
+    @JsonProperty("todoIds")
+    private List<String> todoIds;
+
+    public TodoCacheInvalidation() {
+    }
+
+    public TodoCacheInvalidation(String origin, List<String> todoIds) {
+        this.origin = origin;
+        this.todoIds = todoIds;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public List<String> getTodoIds() {
+        return todoIds;
+    }
+
+    public void setTodoIds(List<String> todoIds) {
+        this.todoIds = todoIds;
+    }
+
+    @Override
+    public String toString() {
+        return "TodoCacheInvalidation{" +
+                "origin='" + origin + '\'' +
+                ", todoIds=" + todoIds +
+                '}';
+    }
+}
@@ -0,0 +1,49 @@
+package com.dash0.examples.todoservice;
+
+import io.dapr.Topic;
+import io.dapr.client.domain.CloudEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Receives cache invalidations published by other todo-service replicas.
+ */
+@RestController
+public class TodoCacheInvalidationController {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoCacheInvalidationController.class);
+
+    private final TodoCache todoCache;
+    private final TodoCacheInvalidator cacheInvalidator;
+
+    public TodoCacheInvalidationController(TodoCache todoCache, TodoCacheInvalidator cacheInvalidator) {
+        this.todoCache = todoCache;
+        this.cacheInvalidator = cacheInvalidator;
+    }
+
+    /**
+     * Dapr PubSub subscriber for cache invalidations.
+     */
+    @Topic(name = "${app.todo.cache.invalidation.topic:todo-cache-invalidation}",
+           pubsubName = "${app.todo.cache.invalidation.pubsub:todo-cache-pubsub}")
+    @PostMapping("/cache/invalidations")
+    public ResponseEntity<Map<String, String>> handleInvalidation(
+            @RequestBody CloudEvent<TodoCacheInvalidation> cloudEvent) {
+        TodoCacheInvalidation invalidation = cloudEvent.getData();
+        if (invalidation == null || invalidation.getTodoIds() == null) {
+            log.warn("Received cache invalidation without todo ids");
+            return ResponseEntity.ok(Map.of("status", "DROP"));
+        }
+        if (!cacheInvalidator.isOwn(invalidation)) {
+            log.debug("Evicting {} todos changed on {}", invalidation.getTodoIds().size(), invalidation.getOrigin());
+            todoCache.evictLocally(invalidation.getTodoIds());
+        }
+        return ResponseEntity.ok(Map.of("status", "SUCCESS"));
+    }
+}
@@ -0,0 +1,64 @@
+package com.dash0.examples.todoservice;
+
+import io.dapr.client.DaprClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Broadcasts local writes to the other todo-service replicas so they can evict their cached copies.
+ *
+ * Messages go to a pub/sub component with one queue per pod, so every replica receives every
+ * invalidation. Publishing is fire-and-forget: it never delays or fails the write that triggered it,
+ * and a lost message is bounded by the cache TTL.
+ */
+@Component
+public class TodoCacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoCacheInvalidator.class);
+
+    private final DaprClient daprClient;
+    private final boolean enabled;
+    private final String pubsubName;
+    private final String topicName;
+    private final String instanceId;
+
+    public TodoCacheInvalidator(DaprClient daprClient,
+                                @Value("${app.todo.cache.invalidation.enabled:true}") boolean enabled,
+                                @Value("${app.todo.cache.invalidation.pubsub:todo-cache-pubsub}") String pubsubName,
+                                @Value("${app.todo.cache.invalidation.topic:todo-cache-invalidation}") String topicName,
+                                @Value("${HOSTNAME:}") String hostname) {
+        this.daprClient = daprClient;
+        this.enabled = enabled;
+        this.pubsubName = pubsubName;
+        this.topicName = topicName;
+        this.instanceId = hostname.isEmpty() ? UUID.randomUUID().toString() : hostname;
+    }
+
+    /**
+     * Tell the other replicas that these todos changed.
+     */
+    public void publish(Collection<String> todoIds) {
+        if (!enabled || todoIds.isEmpty()) {
+            return;
+        }
+        TodoCacheInvalidation invalidation = new TodoCacheInvalidation(instanceId, List.copyOf(todoIds));
+        daprClient.publishEvent(pubsubName, topicName, invalidation)
+            .subscribe(
+                null,
+                error -> log.warn("Failed to publish cache invalidation for {} todos: {}",
+                    todoIds.size(), error.getMessage()));
+    }
+
+    /**
+     * Whether a message was published by this replica, which already updated its own cache.
+     */
+    public boolean isOwn(TodoCacheInvalidation invalidation) {
+        return instanceId.equals(invalidation.getOrigin());
+    }
+}
@@ -2,13 +2,16 @@ package com.dash0.examples.todoservice;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import jakarta.validation.Valid;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -20,9 +23,15 @@ public class TodoController {
 
     private static final Logger log = LoggerFactory.getLogger(TodoController.class);
     private final TodoService todoService;
+    private final int maxPageSize;
+    private final int maxBatchSize;
     
-    public TodoController(TodoService todoService) {
+    public TodoController(TodoService todoService,
+                          @Value("${app.todo.page.max-size:500}") int maxPageSize,
+                          @Value("${app.todo.batch.max-size:5000}") int maxBatchSize) {
         this.todoService = todoService;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchSize = maxBatchSize;
     }
 
     /**
@@ -35,6 +44,41 @@ public class TodoController {
         return todoService.getAllTodos();
     }
 
+    /**
+     * Get one page of todos.
+     * GET /todos?pageSize={n}&pageToken={token}
+     */
+    @GetMapping(params = "pageSize")
+    public Mono<TodoPage> getTodoPage(@RequestParam int pageSize,
+                                      @RequestParam(required = false) String pageToken) {
+        log.info("GET /todos - Getting page of {} todos", pageSize);
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return Mono.error(new IllegalArgumentException("pageSize must be between 1 and " + maxPageSize));
+        }
+        return todoService.getTodoPage(pageToken, pageSize);
+    }
+
+    /**
+     * Stream all todos as NDJSON or server-sent events.
+     * GET /todos (Accept: application/x-ndjson or text/event-stream)
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<Todo> streamTodos() {
+        log.info("GET /todos - Streaming all todos");
+        return todoService.streamAllTodos();
+    }
+
+    /**
+     * Count all todos.
+     * GET /todos/count
+     */
+    @GetMapping("/count")
+    public Mono<Map<String, Long>> countTodos() {
+        log.info("GET /todos/count - Counting todos");
+        return todoService.countTodos()
+            .map(count -> Map.of("count", count));
+    }
+
     /**
      * Get a specific todo by id.
      * GET /todos/{id}
@@ -60,6 +104,21 @@ public class TodoController {
                 ResponseEntity.badRequest().build());
     }
 
+    /**
+     * Create many todos in one request.
+     * POST /todos/batch
+     */
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<TodoBatchResult>> createTodos(@RequestBody CreateTodosRequest request) {
+        List<String> names = request.getNames();
+        if (names == null || names.isEmpty() || names.size() > maxBatchSize || names.contains(null)) {
+            return Mono.error(new IllegalArgumentException("names must contain between 1 and " + maxBatchSize + " names"));
+        }
+        log.info("POST /todos/batch - Creating {} todos", names.size());
+        return todoService.createTodos(names)
+            .map(result -> ResponseEntity.status(HttpStatus.CREATED).body(result));
+    }
+
     /**
      * Update a todo (toggle completion status).
      * PUT /todos/{id}
@@ -114,6 +173,27 @@ public class TodoController {
         }
     }
 
+    /**
+     * Request object for creating many todos.
+     */
+    public static class CreateTodosRequest {
+        private List<String> names;
+        
+        public CreateTodosRequest() {}
+        
+        public CreateTodosRequest(List<String> names) {
+            this.names = names;
+        }
+        
+        public List<String> getNames() {
+            return names;
+        }
+        
+        public void setNames(List<String> names) {
+            this.names = names;
+        }
+    }
+
     /**
      * Global exception handler for the controller.
      */
@@ -123,6 +203,12 @@ public class TodoController {
         return ResponseEntity.notFound().build();
     }
 
+    @ExceptionHandler(ValidationUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleValidationUnavailable(ValidationUnavailableException e) {
+        log.error("Validation unavailable: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, String>> handleIllegalArgument(IllegalArgumentException e) {
         log.error("Invalid argument: {}", e.getMessage());
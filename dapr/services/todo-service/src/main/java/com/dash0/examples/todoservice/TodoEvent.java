@@ -1,40 +1,57 @@
 package com.dash0.examples.todoservice;
 
-import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 /**
- * Event object for todo operations.
+ * Event published to the todo-events topic, in the format the notification service consumes.
  */
 public class TodoEvent {
     
+    @JsonProperty("eventId")
+    private String eventId;
+    
     @JsonProperty("eventType")
     private String eventType;
     
-    @JsonProperty("todo")
-    private Todo todo;
+    @JsonProperty("todoId")
+    private String todoId;
+    
+    @JsonProperty("todoName")
+    private String todoName;
     
     @JsonProperty("timestamp")
-    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
-    private LocalDateTime timestamp;
+    private String timestamp;
     
-    public TodoEvent() {
-    }
+    @JsonProperty("userId")
+    private String userId;
     
-    public TodoEvent(String eventType, Todo todo, LocalDateTime timestamp) {
-        this.eventType = eventType;
-        this.todo = todo;
-        this.timestamp = timestamp;
+    @JsonProperty("validatedBy")
+    private String validatedBy;
+    
+    public TodoEvent() {
     }
     
     public TodoEvent(String eventType, Todo todo) {
+        this.eventId = UUID.randomUUID().toString();
         this.eventType = eventType;
-        this.todo = todo;
-        this.timestamp = LocalDateTime.now();
+        this.todoId = todo.getId();
+        this.todoName = todo.getName();
+        this.timestamp = LocalDateTime.now().toString();
+        this.userId = "demo-user";
+        this.validatedBy = "validation-service";
     }
     
     // Getters and Setters
+    public String getEventId() {
+        return eventId;
+    }
+    
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+    
     public String getEventType() {
         return eventType;
     }
@@ -43,28 +60,56 @@ public class TodoEvent {
         this.eventType = eventType;
     }
     
-    public Todo getTodo() {
-        return todo;
+    public String getTodoId() {
+        return todoId;
     }
     
-    public void setTodo(Todo todo) {
-        this.todo = todo;
+    public void setTodoId(String todoId) {
+        this.todoId = todoId;
     }
     
-    public LocalDateTime getTimestamp() {
+    public String getTodoName() {
+        return todoName;
+    }
+    
+    public void setTodoName(String todoName) {
+        this.todoName = todoName;
+    }
+    
+    public String getTimestamp() {
         return timestamp;
     }
     
-    public void setTimestamp(LocalDateTime timestamp) {
+    public void setTimestamp(String timestamp) {
         this.timestamp = timestamp;
     }
     
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public String getValidatedBy() {
+        return validatedBy;
+    }
+    
+    public void setValidatedBy(String validatedBy) {
+        this.validatedBy = validatedBy;
+    }
+    
     @Override
     public String toString() {
         return "TodoEvent{" +
-                "eventType='" + eventType + '\'' +
-                ", todo=" + todo +
-                ", timestamp=" + timestamp +
+                "eventId='" + eventId + '\'' +
+                ", eventType='" + eventType + '\'' +
+                ", todoId='" + todoId + '\'' +
+                ", todoName='" + todoName + '\'' +
+                ", timestamp='" + timestamp + '\'' +
+                ", userId='" + userId + '\'' +
+                ", validatedBy='" + validatedBy + '\'' +
                 '}';
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,180 @@
+package com.dash0.examples.todoservice;
+
+import io.dapr.client.DaprPreviewClient;
+import io.dapr.client.domain.BulkPublishEntry;
+import io.dapr.client.domain.BulkPublishResponseFailedEntry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes todo events to Dapr pub/sub in the background, in batches.
+ *
+ * {@link #publish} only enqueues the event into a bounded buffer and returns immediately. The buffer is
+ * drained with Dapr bulk publish, one call per {@code batch-size} events or per {@code flush-interval},
+ * whichever comes first; one batch is in flight at a time, so events are published in order. Entries
+ * the sidecar rejects are retried with backoff up to {@code max-retries} times and then dropped. When
+ * publishing falls behind and the buffer is full, new events are dropped instead of blocking requests.
+ * Events that were published are reported on {@link #published()}, so {@link TodoOutbox} can remove
+ * them; dropped events stay in the outbox and are published again by its sweep.
+ *
+ * Metrics: {@code todo.events.queue.depth}, {@code todo.events.publish.latency} (per bulk call),
+ * {@code todo.events.published} and {@code todo.events.dropped} (tagged with {@code reason}: {@code overflow},
+ * {@code stopped} or {@code failed}).
+ */
+@Component
+public class TodoEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoEventPublisher.class);
+    private static final String PUBSUB_NAME = "todo-pubsub";
+    private static final String TOPIC_NAME = "todo-events";
+    private static final String CONTENT_TYPE = "application/json";
+
+    private final DaprPreviewClient daprPreviewClient;
+    private final int maxRetries;
+    private final Duration shutdownTimeout;
+    private final int bufferCapacity;
+    private final AtomicInteger buffered = new AtomicInteger();
+    private volatile FluxSink<TodoEvent> sink;
+    private volatile boolean stopped;
+    private final Sinks.Many<List<TodoEvent>> publishedSink = Sinks.many().multicast().onBackpressureBuffer();
+    private final CountDownLatch drained = new CountDownLatch(1);
+    private final Timer publishLatency;
+    private final Counter published;
+    private final Counter droppedOverflow;
+    private final Counter droppedStopped;
+    private final Counter droppedFailed;
+
+    public TodoEventPublisher(DaprPreviewClient daprPreviewClient,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.todo.events.buffer-capacity:10000}") int bufferCapacity,
+                              @Value("${app.todo.events.batch-size:100}") int batchSize,
+                              @Value("${app.todo.events.flush-interval:50ms}") Duration flushInterval,
+                              @Value("${app.todo.events.max-retries:3}") int maxRetries,
+                              @Value("${app.todo.events.shutdown-timeout:5s}") Duration shutdownTimeout) {
+        this.daprPreviewClient = daprPreviewClient;
+        this.maxRetries = maxRetries;
+        this.shutdownTimeout = shutdownTimeout;
+
+        this.bufferCapacity = bufferCapacity;
+
+        Gauge.builder("todo.events.queue.depth", buffered, AtomicInteger::get)
+            .description("Todo events waiting to be published")
+            .register(meterRegistry);
+        this.publishLatency = Timer.builder("todo.events.publish.latency")
+            .description("Duration of one bulk publish call")
+            .register(meterRegistry);
+        this.published = Counter.builder("todo.events.published").register(meterRegistry);
+        this.droppedOverflow = Counter.builder("todo.events.dropped").tag("reason", "overflow").register(meterRegistry);
+        this.droppedStopped = Counter.builder("todo.events.dropped").tag("reason", "stopped").register(meterRegistry);
+        this.droppedFailed = Counter.builder("todo.events.dropped").tag("reason", "failed").register(meterRegistry);
+
+        // FluxSink serializes concurrent emissions: an event that arrives while another thread is emitting is
+        // queued for that thread to deliver, so publishers never wait for each other. Events count as buffered
+        // until their batch is published, including while they wait in a batch or in the concatMap queue.
+        Flux.<TodoEvent>create(sink -> this.sink = sink)
+            .bufferTimeout(batchSize, flushInterval, true)
+            .concatMap(batch -> Mono.defer(() -> {
+                buffered.addAndGet(-batch.size());
+                return publishBatch(batch, 0);
+            }))
+            .doFinally(signal -> {
+                publishedSink.tryEmitComplete();
+                drained.countDown();
+            })
+            .subscribe();
+    }
+
+    /**
+     * Enqueue an event for publishing. Never blocks; the event is dropped if the buffer is full.
+     */
+    public void publish(TodoEvent event) {
+        if (stopped) {
+            droppedStopped.increment();
+            log.warn("Dropped {} event for todo {}: publisher stopped", event.getEventType(), event.getTodoId());
+            return;
+        }
+        if (buffered.incrementAndGet() > bufferCapacity) {
+            buffered.decrementAndGet();
+            droppedOverflow.increment();
+            log.warn("Dropped {} event for todo {}: buffer full", event.getEventType(), event.getTodoId());
+            return;
+        }
+        sink.next(event);
+    }
+
+    /**
+     * Batches of events the sidecar accepted, in publishing order.
+     */
+    public Flux<List<TodoEvent>> published() {
+        return publishedSink.asFlux();
+    }
+
+    /**
+     * Stop accepting events and give the buffered ones a chance to go out.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        stopped = true;
+        sink.complete();
+        if (!drained.await(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Todo events still buffered after {}, giving up", shutdownTimeout);
+        }
+    }
+
+    private Mono<Void> publishBatch(List<TodoEvent> events, int attempt) {
+        Timer.Sample sample = Timer.start();
+        return daprPreviewClient.publishEvents(PUBSUB_NAME, TOPIC_NAME, CONTENT_TYPE, events)
+            .map(response -> response.getFailedEntries().stream()
+                .map(BulkPublishResponseFailedEntry::getEntry)
+                .map(BulkPublishEntry::getEvent)
+                .toList())
+            .onErrorResume(error -> {
+                log.warn("Bulk publish of {} todo events failed: {}", events.size(), error.getMessage());
+                return Mono.just(events);
+            })
+            .flatMap(failed -> {
+                sample.stop(publishLatency);
+                published.increment(events.size() - failed.size());
+                reportPublished(events, failed);
+                if (failed.isEmpty()) {
+                    return Mono.empty();
+                }
+                if (attempt >= maxRetries) {
+                    droppedFailed.increment(failed.size());
+                    log.error("Dropped {} todo events after {} retries", failed.size(), maxRetries);
+                    return Mono.empty();
+                }
+                log.debug("Retrying {} of {} todo events, retry #{}", failed.size(), events.size(), attempt + 1);
+                return Mono.delay(Duration.ofMillis(100L << attempt))
+                    .then(Mono.defer(() -> publishBatch(failed, attempt + 1)));
+            });
+    }
+
+    private void reportPublished(List<TodoEvent> events, List<TodoEvent> failed) {
+        if (failed.isEmpty()) {
+            publishedSink.tryEmitNext(events);
+        } else if (failed.size() < events.size()) {
+            Set<String> failedIds = failed.stream().map(TodoEvent::getEventId).collect(Collectors.toSet());
+            publishedSink.tryEmitNext(events.stream().filter(event -> !failedIds.contains(event.getEventId())).toList());
+        }
+    }
+}
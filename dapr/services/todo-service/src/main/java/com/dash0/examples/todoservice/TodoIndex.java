@@ -0,0 +1,22 @@
+package com.dash0.examples.todoservice;
+
+import io.dapr.client.DaprClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sharded index of todo IDs ({@code todo-index-0} .. {@code todo-index-N}).
+ *
+ * {@code app.todo.index.shards} must not change once data exists.
+ */
+@Component
+public class TodoIndex extends ShardedIndex {
+
+    private static final String INDEX_KEY_PREFIX = "todo-index-";
+
+    public TodoIndex(DaprClient daprClient,
+                     @Value("${app.todo.index.shards:16}") int shardCount,
+                     @Value("${app.todo.index.max-retries:10}") int maxRetries) {
+        super(daprClient, INDEX_KEY_PREFIX, shardCount, maxRetries);
+    }
+}
@@ -0,0 +1,48 @@
+package com.dash0.examples.todoservice;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Moves todo IDs from the unsharded {@code todo-index} key, which earlier versions kept all IDs in, into
+ * the {@link TodoIndex} shards.
+ *
+ * Runs once in the background on startup and is a no-op once the key is gone. Until it finished, todos
+ * that are only listed under the old key are missing from listings and counts. Replicas starting
+ * together move the IDs only once (see {@link ShardedIndex#absorb}). If the sidecar is not reachable yet,
+ * the migration is retried with backoff.
+ */
+@Component
+public class TodoIndexMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoIndexMigration.class);
+    private static final String LEGACY_INDEX_KEY = "todo-index";
+
+    private final Disposable migration;
+
+    public TodoIndexMigration(TodoIndex todoIndex) {
+        this.migration = todoIndex.absorb(LEGACY_INDEX_KEY)
+            .retryWhen(Retry.backoff(10, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                .doBeforeRetry(signal -> log.warn("Migrating {} failed, retrying: {}",
+                    LEGACY_INDEX_KEY, signal.failure().getMessage())))
+            .subscribe(
+                moved -> {
+                    if (moved > 0) {
+                        log.info("Moved {} todo IDs from {} into the index shards", moved, LEGACY_INDEX_KEY);
+                    }
+                },
+                error -> log.error("Failed to migrate {}, its todos stay unlisted until the next start: {}",
+                    LEGACY_INDEX_KEY, error.getMessage()));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        migration.dispose();
+    }
+}
@@ -0,0 +1,191 @@
+package com.dash0.examples.todoservice;
+
+import io.dapr.client.DaprClient;
+import io.dapr.client.domain.State;
+import io.dapr.client.domain.TransactionalStateOperation;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional outbox for todo events.
+ *
+ * Each event is written as {@code todo-outbox-<eventId>} in the same state transaction as the todo
+ * change it describes, and listed as the attachment {@code <todoId>/<eventId>} in the todo's own index
+ * shard, which that transaction writes anyway for creates and deletes. No other key is shared between
+ * writers. After the transaction commits, the events are handed to {@link TodoEventPublisher}; once the
+ * sidecar accepted them, their outbox entries are deleted. A periodic sweep walks the attachments:
+ * entries that are still there after {@code sweep-after} (failed publishes, or a replica that died
+ * before publishing) are published again, and attachments whose entry is gone are dropped from their
+ * shard. Delivery is at-least-once, so consumers should deduplicate on {@code eventId}.
+ */
+@Component
+public class TodoOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(TodoOutbox.class);
+    private static final String STATE_STORE_NAME = "todo-statestore";
+    private static final String OUTBOX_KEY_PREFIX = "todo-outbox-";
+
+    private final DaprClient daprClient;
+    private final TodoEventPublisher todoEventPublisher;
+    private final TodoIndex todoIndex;
+    private final Duration sweepAfter;
+    private final int bulkChunkSize;
+    private final Disposable relay;
+    private final Disposable sweeper;
+
+    public TodoOutbox(DaprClient daprClient,
+                      TodoEventPublisher todoEventPublisher,
+                      TodoIndex todoIndex,
+                      @Value("${app.todo.outbox.sweep-interval:30s}") Duration sweepInterval,
+                      @Value("${app.todo.outbox.sweep-after:60s}") Duration sweepAfter,
+                      @Value("${app.todo.read.bulk-chunk-size:100}") int bulkChunkSize) {
+        this.daprClient = daprClient;
+        this.todoEventPublisher = todoEventPublisher;
+        this.todoIndex = todoIndex;
+        this.sweepAfter = sweepAfter;
+        this.bulkChunkSize = bulkChunkSize;
+
+        this.relay = todoEventPublisher.published()
+            .concatMap(events -> remove(events)
+                .onErrorResume(error -> {
+                    // The entries stay behind and are published again by the sweep
+                    log.warn("Failed to remove {} published events from the outbox: {}",
+                        events.size(), error.getMessage());
+                    return Mono.empty();
+                }))
+            .subscribe();
+        this.sweeper = Flux.interval(sweepInterval, sweepInterval)
+            .onBackpressureDrop()
+            .concatMap(tick -> sweep()
+                .onErrorResume(error -> {
+                    log.warn("Outbox sweep failed: {}", error.getMessage());
+                    return Mono.empty();
+                }))
+            .subscribe();
+    }
+
+    /**
+     * Index entries that list the given events in their todo's index shard, to be added to the todo index
+     * in the state transaction that writes the todo changes they describe.
+     */
+    public List<String> indexEntries(Collection<TodoEvent> events) {
+        return events.stream().map(event -> ShardedIndex.attachment(event.getTodoId(), event.getEventId())).toList();
+    }
+
+    /**
+     * Build the operations that add events to the outbox, for use in the same state transaction.
+     */
+    public List<TransactionalStateOperation<?>> appendOperations(Collection<TodoEvent> events) {
+        List<TransactionalStateOperation<?>> operations = new ArrayList<>(events.size());
+        for (TodoEvent event : events) {
+            operations.add(new TransactionalStateOperation<>(TransactionalStateOperation.OperationType.UPSERT,
+                new State<>(getKey(event.getEventId()), event, null)));
+        }
+        return operations;
+    }
+
+    /**
+     * Publish events whose outbox entries were just committed.
+     */
+    public void relay(Collection<TodoEvent> events) {
+        events.forEach(todoEventPublisher::publish);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.dispose();
+        relay.dispose();
+    }
+
+    /**
+     * Delete the entries of published events. Their index entries are left to the sweep, so publishing
+     * never writes an index shard.
+     */
+    private Mono<Void> remove(List<TodoEvent> events) {
+        List<TransactionalStateOperation<?>> operations = new ArrayList<>(events.size());
+        for (TodoEvent event : events) {
+            operations.add(new TransactionalStateOperation<>(TransactionalStateOperation.OperationType.DELETE,
+                new State<>(getKey(event.getEventId()))));
+        }
+        return daprClient.executeStateTransaction(STATE_STORE_NAME, operations);
+    }
+
+    /**
+     * Publish again every outbox entry older than {@code sweep-after}, and drop the index entries of
+     * events that were published, one index shard at a time.
+     */
+    Mono<Void> sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(sweepAfter);
+        return todoIndex.streamAttachmentsByShard()
+            .concatMap(attachments -> Flux.fromIterable(attachments)
+                .buffer(bulkChunkSize)
+                .concatMap(chunk -> {
+                    Map<String, String> attachmentsByKey = new LinkedHashMap<>();
+                    chunk.forEach(attachment -> attachmentsByKey.put(getKey(ShardedIndex.suffixOf(attachment)), attachment));
+                    return daprClient.getBulkState(STATE_STORE_NAME, new ArrayList<>(attachmentsByKey.keySet()), TodoEvent.class)
+                        .map(states -> {
+                            List<String> published = new ArrayList<>();
+                            for (State<TodoEvent> state : states) {
+                                if (state.getError() != null) {
+                                    continue;
+                                }
+                                if (state.getValue() == null) {
+                                    published.add(attachmentsByKey.get(state.getKey()));
+                                } else if (isOlderThan(state.getValue(), cutoff)) {
+                                    TodoEvent event = state.getValue();
+                                    log.info("Republishing {} event {} from the outbox", event.getEventType(), event.getEventId());
+                                    todoEventPublisher.publish(event);
+                                }
+                            }
+                            return published;
+                        });
+                })
+                .concatMapIterable(published -> published)
+                .collectList()
+                .flatMap(this::dropIndexEntries))
+            .then();
+    }
+
+    /**
+     * Remove index entries whose outbox entries are gone, in one transaction per shard.
+     */
+    private Mono<Void> dropIndexEntries(List<String> attachments) {
+        if (attachments.isEmpty()) {
+            return Mono.empty();
+        }
+        return Mono.defer(() -> todoIndex.prepareChanges(List.of(), attachments)
+                .flatMap(operations -> operations.isEmpty() ? Mono.<Void>empty()
+                    : daprClient.executeStateTransaction(STATE_STORE_NAME, operations)))
+            .retryWhen(todoIndex.conflictRetry());
+    }
+
+    private static boolean isOlderThan(TodoEvent event, LocalDateTime cutoff) {
+        if (event.getTimestamp() == null) {
+            return true;
+        }
+        try {
+            return LocalDateTime.parse(event.getTimestamp()).isBefore(cutoff);
+        } catch (DateTimeParseException e) {
+            return true;
+        }
+    }
+
+    private String getKey(String eventId) {
+        return OUTBOX_KEY_PREFIX + eventId;
+    }
+}
@@ -0,0 +1,41 @@
+package com.dash0.examples.todoservice;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * A page of todos and the token to request the next page with.
+ */
+public class TodoPage {
+
+    @JsonProperty("items")
+    private List<Todo> items;
+
+    @JsonProperty("nextPageToken")
+    private String nextPageToken;
+
+    public TodoPage() {
+    }
+
+    public TodoPage(List<Todo> items, String nextPageToken) {
+        this.items = items;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<Todo> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Todo> items) {
+        this.items = items;
+    }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+}
@@ -2,18 +2,19 @@ package com.dash0.examples.todoservice;
 
 import io.dapr.client.DaprClient;
 import io.dapr.client.domain.State;
+import io.dapr.client.domain.TransactionalStateOperation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
-import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Repository for Todo entities using Dapr state store.
@@ -24,71 +25,115 @@ public class TodoRepository {
     private static final Logger log = LoggerFactory.getLogger(TodoRepository.class);
     private static final String STATE_STORE_NAME = "todo-statestore";
     private static final String TODO_KEY_PREFIX = "todo-";
-    private static final String TODO_INDEX_KEY = "todo-index";
     
     private final DaprClient daprClient;
+    private final TodoIndex todoIndex;
+    private final TodoCache todoCache;
+    private final TodoOutbox todoOutbox;
+    private final int bulkChunkSize;
+    private final int bulkConcurrency;
+    private final int maxTransactionSize;
     
-    // Local cache for todo IDs (in production, use Dapr query or maintain index in state store)
-    private final ConcurrentHashMap<String, Boolean> todoIds = new ConcurrentHashMap<>();
-    
-    public TodoRepository(DaprClient daprClient) {
+    public TodoRepository(DaprClient daprClient,
+                          TodoIndex todoIndex,
+                          TodoCache todoCache,
+                          TodoOutbox todoOutbox,
+                          @Value("${app.todo.read.bulk-chunk-size:100}") int bulkChunkSize,
+                          @Value("${app.todo.read.bulk-concurrency:4}") int bulkConcurrency,
+                          @Value("${app.todo.write.max-transaction-size:100}") int maxTransactionSize) {
         this.daprClient = daprClient;
+        this.todoIndex = todoIndex;
+        this.todoCache = todoCache;
+        this.todoOutbox = todoOutbox;
+        this.bulkChunkSize = bulkChunkSize;
+        this.bulkConcurrency = bulkConcurrency;
+        this.maxTransactionSize = maxTransactionSize;
     }
 
     /**
-     * Save a todo to the state store.
+     * Save a todo and add it to the index in one state transaction.
      */
     public Mono<Todo> save(Todo todo) {
+        return save(todo, List.of());
+    }
+
+    /**
+     * Save a todo, add it to the index and append its events to the outbox in one state transaction.
+     */
+    public Mono<Todo> save(Todo todo, TodoEvent event) {
+        return save(todo, List.of(event));
+    }
+
+    private Mono<Todo> save(Todo todo, List<TodoEvent> events) {
         log.info("Saving todo with id: {}", todo.getId());
         
-        String key = getKey(todo.getId());
-        todoIds.put(todo.getId(), true);
-        
-        // Use Mono.fromRunnable to execute blocking operations
-        return Mono.fromRunnable(() -> {
-            try {
-                // Block on save state - following Dapr SDK examples
-                daprClient.saveState(STATE_STORE_NAME, key, todo).block();
+        return writeTransaction(List.of(upsert(todo)), List.of(todo.getId()), List.of(), events)
+            .doOnSuccess(v -> {
+                todoCache.put(todo);
+                todoOutbox.relay(events);
                 log.info("Todo saved to state store: {}", todo.getId());
-                
-                // Update index
-                updateIndex(todo.getId(), true).block();
-                log.info("Index updated for todo: {}", todo.getId());
-            } catch (Exception e) {
+            })
+            .doOnError(e -> {
+                todoCache.invalidate(todo.getId());
                 log.error("Failed to save todo: {}", e.getMessage(), e);
-                throw new RuntimeException("Failed to save todo", e);
-            }
-        })
-        .then(Mono.just(todo));
+            })
+            .onErrorMap(e -> new RuntimeException("Failed to save todo", e))
+            .thenReturn(todo);
     }
 
     /**
-     * Find a todo by id.
+     * Save many todos, one state transaction per {@code app.todo.write.max-transaction-size} todos.
      */
-    public Mono<Todo> findById(String id) {
-        log.info("Finding todo with id: {}", id);
-        
-        String key = getKey(id);
+    public Flux<Todo> saveAll(Collection<Todo> todos) {
+        return saveAll(todos, List.of());
+    }
+
+    /**
+     * Save many todos, one state transaction per {@code app.todo.write.max-transaction-size} todos.
+     * Events are matched to their todo by id and appended to the outbox in the same transaction.
+     */
+    public Flux<Todo> saveAll(Collection<Todo> todos, Collection<TodoEvent> events) {
+        log.info("Saving {} todos", todos.size());
         
-        return daprClient.getState(STATE_STORE_NAME, key, Todo.class)
-            .flatMap(state -> {
-                Todo todo = state.getValue();
-                if (todo != null) {
-                    todoIds.put(id, true);
-                    return Mono.just(todo);
-                } else {
-                    return Mono.empty();
+        Map<String, List<TodoEvent>> eventsByTodoId = events.stream()
+            .collect(Collectors.groupingBy(TodoEvent::getTodoId));
+        return Flux.fromIterable(todos)
+            .buffer(maxTransactionSize)
+            .concatMap(batch -> {
+                List<TransactionalStateOperation<?>> operations = new ArrayList<>(batch.size());
+                List<String> ids = new ArrayList<>(batch.size());
+                List<TodoEvent> batchEvents = new ArrayList<>();
+                for (Todo todo : batch) {
+                    operations.add(upsert(todo));
+                    ids.add(todo.getId());
+                    batchEvents.addAll(eventsByTodoId.getOrDefault(todo.getId(), List.of()));
                 }
+                return writeTransaction(operations, ids, List.of(), batchEvents)
+                    .doOnSuccess(v -> {
+                        todoCache.putAll(batch);
+                        todoOutbox.relay(batchEvents);
+                    })
+                    .doOnError(e -> todoCache.invalidateAll(ids))
+                    .thenMany(Flux.fromIterable(batch));
             });
     }
 
+    /**
+     * Find a todo by id, served from the local cache when possible.
+     */
+    public Mono<Todo> findById(String id) {
+        log.info("Finding todo with id: {}", id);
+        
+        return todoCache.get(id);
+    }
+
     /**
      * Find all todos.
      */
     public Flux<Todo> findAll() {
         log.info("Finding all todos");
         
-        return getIndexFromStore()
+        return todoIndex.findAllIds()
             .flatMapMany(index -> {
                 if (index.isEmpty()) {
                     log.info("No todos found in index");
@@ -96,23 +141,67 @@ public class TodoRepository {
                 }
                 
                 log.info("Found {} todo IDs in index", index.size());
-                return Flux.fromIterable(index)
-                    .flatMap(this::findById)
-                    .filter(todo -> todo != null);
+                return findAllById(index);
             });
     }
 
     /**
-     * Delete a todo by id.
+     * Find one page of todos, following the index order.
+     */
+    public Mono<TodoPage> findPage(String pageToken, int pageSize) {
+        return todoIndex.findIdPage(pageToken, pageSize)
+            .flatMap(page -> findAllById(page.ids())
+                .collectList()
+                .map(todos -> new TodoPage(todos, page.nextPageToken())));
+    }
+
+    /**
+     * Stream all todos one index shard at a time, so memory stays bounded by a single shard.
+     */
+    public Flux<Todo> streamAll() {
+        return todoIndex.streamIdsByShard()
+            .concatMap(this::findAllById);
+    }
+
+    /**
+     * Find todos by id using bulk state reads, one sidecar call per chunk of ids.
+     */
+    public Flux<Todo> findAllById(Collection<String> ids) {
+        return Flux.fromIterable(ids)
+            .map(this::getKey)
+            .buffer(bulkChunkSize)
+            .flatMapSequential(keys -> daprClient.getBulkState(STATE_STORE_NAME, keys, Todo.class), bulkConcurrency)
+            .flatMapIterable(states -> states)
+            .filter(state -> {
+                if (state.getError() != null) {
+                    log.warn("Failed to load {}: {}", state.getKey(), state.getError());
+                    return false;
+                }
+                return state.getValue() != null;
+            })
+            .map(State::getValue);
+    }
+
+    /**
+     * Delete a todo and remove it from the index in one state transaction.
      */
     public Mono<Void> deleteById(String id) {
+        return deleteById(id, List.of());
+    }
+
+    /**
+     * Delete a todo, remove it from the index and append its events to the outbox in one state transaction.
+     */
+    public Mono<Void> deleteById(String id, TodoEvent event) {
+        return deleteById(id, List.of(event));
+    }
+
+    private Mono<Void> deleteById(String id, List<TodoEvent> events) {
         log.info("Deleting todo with id: {}", id);
         
-        String key = getKey(id);
-        
-        return daprClient.deleteState(STATE_STORE_NAME, key, null, null)
-            .then(updateIndex(id, false))
-            .doOnSuccess(v -> todoIds.remove(id));
+        return writeTransaction(List.of(delete(id)), List.of(), List.of(id), events)
+            .doOnSuccess(v -> todoOutbox.relay(events))
+            .doFinally(signal -> todoCache.invalidate(id));
     }
 
     /**
@@ -125,56 +214,63 @@ public class TodoRepository {
     }
 
     /**
-     * Count all todos.
+     * Count all todos from the index, without loading them.
      */
     public Mono<Long> count() {
-        return findAll().count();
+        return todoIndex.countIds();
     }
 
     /**
-     * Delete all todos.
+     * Delete all todos, one state transaction per {@code app.todo.write.max-transaction-size} todos.
+     * Only ids are read; todo bodies are never loaded.
      */
     public Mono<Void> deleteAll() {
         log.info("Deleting all todos");
         
-        return findAll()
-            .map(Todo::getId)
-            .flatMap(this::deleteById)
+        return todoIndex.streamIdsByShard()
+            .concatMapIterable(ids -> ids)
+            .buffer(maxTransactionSize)
+            .concatMap(ids -> {
+                List<TransactionalStateOperation<?>> operations = new ArrayList<>(ids.size());
+                ids.forEach(id -> operations.add(delete(id)));
+                return writeTransaction(operations, List.of(), ids, List.of())
+                    .doFinally(signal -> todoCache.invalidateAll(ids));
+            })
             .then();
     }
 
-    private String getKey(String id) {
-        return TODO_KEY_PREFIX + id;
-    }
-
     /**
-     * Update the todo index in state store.
+     * Execute the given todo operations together with the matching index shard updates and outbox
+     * entries as one state transaction. Outbox entries are listed in the index shards of their todos,
+     * so they add no shard of their own. On an ETag conflict the shards are re-read and the transaction retried.
      */
-    private Mono<Void> updateIndex(String todoId, boolean add) {
-        return getIndexFromStore()
-            .map(index -> {
-                if (add) {
-                    index.add(todoId);
-                } else {
-                    index.remove(todoId);
-                }
-                return index;
-            })
-            .flatMap(updatedIndex -> 
-                daprClient.saveState(STATE_STORE_NAME, TODO_INDEX_KEY, updatedIndex)
-            );
+    private Mono<Void> writeTransaction(List<TransactionalStateOperation<?>> operations,
+                                        Collection<String> addedIds,
+                                        Collection<String> removedIds,
+                                        Collection<TodoEvent> events) {
+        List<String> addedEntries = new ArrayList<>(addedIds);
+        addedEntries.addAll(todoOutbox.indexEntries(events));
+        return Mono.defer(() -> todoIndex.prepareChanges(addedEntries, removedIds)
+                .flatMap(indexOperations -> {
+                    List<TransactionalStateOperation<?>> all = new ArrayList<>(operations);
+                    all.addAll(todoOutbox.appendOperations(events));
+                    all.addAll(indexOperations);
+                    return daprClient.executeStateTransaction(STATE_STORE_NAME, all);
+                }))
+            .retryWhen(todoIndex.conflictRetry());
     }
 
-    /**
-     * Get todo index from state store.
-     */
-    private Mono<Set<String>> getIndexFromStore() {
-        return daprClient.getState(STATE_STORE_NAME, TODO_INDEX_KEY, HashSet.class)
-            .map(state -> {
-                @SuppressWarnings("unchecked")
-                HashSet<String> index = (HashSet<String>) state.getValue();
-                return (Set<String>) (index != null ? index : new HashSet<String>());
-            })
-            .onErrorReturn(new HashSet<String>());
+    private TransactionalStateOperation<Todo> upsert(Todo todo) {
+        return new TransactionalStateOperation<>(TransactionalStateOperation.OperationType.UPSERT,
+            new State<>(getKey(todo.getId()), todo, null));
+    }
+
+    private TransactionalStateOperation<Todo> delete(String id) {
+        return new TransactionalStateOperation<>(TransactionalStateOperation.OperationType.DELETE,
+            new State<>(getKey(id)));
+    }
+
+    private String getKey(String id) {
+        return TODO_KEY_PREFIX + id;
     }
 }
\ No newline at end of file
@@ -1,15 +1,13 @@
 package com.dash0.examples.todoservice;
 
-import io.dapr.client.DaprClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Service layer for Todo operations.
@@ -18,16 +16,13 @@ import java.util.Map;
 public class TodoService {
 
     private static final Logger log = LoggerFactory.getLogger(TodoService.class);
-    private static final String VALIDATION_SERVICE_APP_ID = "validation-service";
-    private static final String PUBSUB_NAME = "todo-pubsub";
-    private static final String TOPIC_NAME = "todo-events";
 
     private final TodoRepository todoRepository;
-    private final DaprClient daprClient;
+    private final ValidationServiceClient validationServiceClient;
     
-    public TodoService(TodoRepository todoRepository, DaprClient daprClient) {
+    public TodoService(TodoRepository todoRepository, ValidationServiceClient validationServiceClient) {
         this.todoRepository = todoRepository;
-        this.daprClient = daprClient;
+        this.validationServiceClient = validationServiceClient;
     }
 
     /**
@@ -43,12 +38,38 @@ public class TodoService {
                 }
                 
                 Todo todo = new Todo(name);
-                return todoRepository.save(todo)
-                    .doOnNext(savedTodo -> {
-                        log.info("Todo saved successfully: {}", savedTodo.getId());
-                        // Publish event after save
-                        publishTodoEvent("created", savedTodo);
-                    });
+                // The created event is committed with the todo and published from the outbox
+                return todoRepository.save(todo, new TodoEvent("created", todo))
+                    .doOnNext(savedTodo -> log.info("Todo saved successfully: {}", savedTodo.getId()));
+            });
+    }
+
+    /**
+     * Create many todos at once. Names are validated in batches, and valid todos are saved together
+     * with their created events; invalid names are reported back instead of failing the whole request.
+     */
+    public Mono<TodoBatchResult> createTodos(List<String> names) {
+        log.info("Creating {} todos", names.size());
+        
+        return validationServiceClient.validateAll(names)
+            .flatMap(results -> {
+                List<Todo> todos = new ArrayList<>(names.size());
+                List<TodoEvent> events = new ArrayList<>(names.size());
+                List<TodoBatchResult.RejectedTodo> rejected = new ArrayList<>();
+                for (int i = 0; i < names.size(); i++) {
+                    ValidationServiceClient.ValidationResponse result = results.get(i);
+                    if (result.isValid()) {
+                        Todo todo = new Todo(names.get(i));
+                        todos.add(todo);
+                        events.add(new TodoEvent("created", todo));
+                    } else {
+                        rejected.add(new TodoBatchResult.RejectedTodo(names.get(i), result.getMessage()));
+                    }
+                }
+                log.info("{} of {} todo names are valid", todos.size(), names.size());
+                return todoRepository.saveAll(todos, events)
+                    .collectList()
+                    .map(created -> new TodoBatchResult(created, rejected));
             });
     }
 
@@ -60,6 +81,29 @@ public class TodoService {
         return todoRepository.findAll();
     }
 
+    /**
+     * Get one page of todos.
+     */
+    public Mono<TodoPage> getTodoPage(String pageToken, int pageSize) {
+        log.info("Getting todo page of size {}", pageSize);
+        return todoRepository.findPage(pageToken, pageSize);
+    }
+
+    /**
+     * Stream all todos with bounded memory.
+     */
+    public Flux<Todo> streamAllTodos() {
+        log.info("Streaming all todos");
+        return todoRepository.streamAll();
+    }
+
+    /**
+     * Count all todos.
+     */
+    public Mono<Long> countTodos() {
+        return todoRepository.count();
+    }
+
     /**
      * Get a todo by id.
      */
@@ -79,10 +123,7 @@ public class TodoService {
             .switchIfEmpty(Mono.error(new TodoNotFoundException("Todo with id " + id + " not found")))
             .flatMap(todo -> {
                 todo.toggleCompleted();
-                return todoRepository.save(todo)
-                    .doOnNext(savedTodo -> {
-                        publishTodoEvent("updated", savedTodo);
-                    });
+                return todoRepository.save(todo, new TodoEvent("updated", todo));
             });
     }
 
@@ -95,81 +136,19 @@ public class TodoService {
         return todoRepository.findById(id)
             .switchIfEmpty(Mono.error(new TodoNotFoundException("Todo with id " + id + " not found")))
             .flatMap(todo -> {
-                return todoRepository.deleteById(id)
-                    .then(Mono.fromRunnable(() -> publishTodoEvent("deleted", todo)));
+                return todoRepository.deleteById(id, new TodoEvent("deleted", todo));
             });
     }
 
     /**
      * Validate todo name using the validation service via Dapr service invocation.
+     * If the validation service is unavailable, the configured failure mode either accepts the name
+     * or fails with {@link ValidationUnavailableException}.
      */
     private Mono<Boolean> validateTodoName(String name) {
         log.info("Validating todo name: {}", name);
         
-        Map<String, String> validationRequest = new HashMap<>();
-        validationRequest.put("name", name);
-        
-        return daprClient.invokeMethod(
-            VALIDATION_SERVICE_APP_ID,
-            "validate",
-            validationRequest,
-            io.dapr.client.domain.HttpExtension.POST,
-            ValidationResponse.class
-        )
-        .map(ValidationResponse::isValid)
-        .doOnError(error -> log.error("Validation service call failed", error))
-        .onErrorReturn(true); // Default to valid if validation service is unavailable
-    }
-
-    /**
-     * Publish todo events to Dapr pubsub.
-     */
-    private void publishTodoEvent(String eventType, Todo todo) {
-        try {
-            log.info("Publishing {} event for todo: {}", eventType, todo.getId());
-            
-            // Create event matching notification-service expected format
-            Map<String, Object> event = new HashMap<>();
-            event.put("eventType", eventType);
-            event.put("todoId", todo.getId());
-            event.put("todoName", todo.getName());
-            event.put("timestamp", LocalDateTime.now().toString());
-            event.put("userId", "demo-user");
-            event.put("validatedBy", "validation-service");
-            
-            // Simple blocking call with try-catch
-            daprClient.publishEvent(
-                PUBSUB_NAME,
-                TOPIC_NAME, 
-                event
-            ).block();
-            
-            log.info("Successfully published {} event for todo {} to topic {}", 
-                     eventType, todo.getId(), TOPIC_NAME);
-        } catch (Exception e) {
-            log.error("Error publishing event to pubsub: {}", e.getMessage(), e);
-            // Continue processing even if publishing fails
-        }
-    }
-
-    /**
-     * Validation response from validation service.
-     */
-    public static class ValidationResponse {
-        private boolean valid;
-        
-        public ValidationResponse() {}
-        
-        public ValidationResponse(boolean valid) {
-            this.valid = valid;
-        }
-        
-        public boolean isValid() {
-            return valid;
-        }
-        
-        public void setValid(boolean valid) {
-            this.valid = valid;
-        }
+        return validationServiceClient.validate(name)
+            .map(ValidationServiceClient.ValidationResponse::isValid);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,512 @@
+package com.dash0.examples.todoservice;
+
+import com.dash0.examples.validation.grpc.ValidateRequest;
+import com.dash0.examples.validation.grpc.ValidateResponse;
+import com.dash0.examples.validation.grpc.ValidationGrpc;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.dapr.client.DaprClient;
+import io.dapr.client.domain.HttpExtension;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Calls validation-service through Dapr service invocation, with a local cache of results.
+ *
+ * Results are cached per rules version and name, and concurrent calls for the same name share one
+ * in-flight invocation. The rules version is the one reported by the most recent response; when it
+ * changes, entries cached for the old version are no longer found and age out. The TTL bounds how long
+ * a rule change can go unnoticed while every lookup is a hit. Validation only looks at a name's length
+ * and lowercase form, so names that agree on both share an entry. Hit and miss metrics are published
+ * as {@code cache.*} meters with {@code cache=validations}.
+ *
+ * Each invocation runs under a deadline, inside a circuit breaker and a concurrency bulkhead; calls
+ * rejected by a full bulkhead are not counted as failures by the circuit breaker. With
+ * hedging enabled, a second attempt is started when the first has not answered within the observed
+ * p95 latency, and whichever answers first wins. When validation can't be done, the
+ * {@code failure-mode} decides: {@code open} treats the name as valid, {@code closed} fails the request
+ * with {@link ValidationUnavailableException}. Fallback results are never cached.
+ *
+ * {@link #validateAll} validates many names with {@code POST /validate/batch}, one invocation per
+ * {@code batch-size} uncached names, under the same deadline, circuit breaker and bulkhead.
+ *
+ * With {@code protocol=grpc}, the same calls go through Dapr's gRPC service invocation instead of
+ * HTTP and JSON: {@code Validate} for one name and one {@code ValidateStream} stream per batch (see
+ * {@code src/main/proto/validation.proto}). validation-service must then serve gRPC behind its sidecar.
+ */
+@Component
+public class ValidationServiceClient {
+
+    private static final Logger log = LoggerFactory.getLogger(ValidationServiceClient.class);
+    private static final String VALIDATION_SERVICE_APP_ID = "validation-service";
+
+    private final DaprClient daprClient;
+    private final AsyncCache<String, ValidationResponse> cache;
+    private final Duration timeout;
+    private final boolean failClosed;
+    private final boolean hedgeEnabled;
+    private final Duration hedgeMinDelay;
+    private final int batchSize;
+    private final ValidationGrpc.ValidationFutureStub grpcStub;
+    private final ValidationGrpc.ValidationStub grpcStreamStub;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Timer latency;
+    private final Counter hedges;
+    private final MeterRegistry meterRegistry;
+    private volatile String rulesVersion = "";
+
+    public ValidationServiceClient(DaprClient daprClient,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.todo.validation.cache.max-size:10000}") long maxSize,
+                                   @Value("${app.todo.validation.cache.ttl:5m}") Duration ttl,
+                                   @Value("${app.todo.validation.timeout:500ms}") Duration timeout,
+                                   @Value("${app.todo.validation.failure-mode:open}") String failureMode,
+                                   @Value("${app.todo.validation.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                                   @Value("${app.todo.validation.circuit-breaker.window-size:20}") int windowSize,
+                                   @Value("${app.todo.validation.circuit-breaker.open-duration:10s}") Duration openDuration,
+                                   @Value("${app.todo.validation.bulkhead.max-concurrent-calls:50}") int maxConcurrentCalls,
+                                   @Value("${app.todo.validation.hedge.enabled:false}") boolean hedgeEnabled,
+                                   @Value("${app.todo.validation.hedge.min-delay:20ms}") Duration hedgeMinDelay,
+                                   @Value("${app.todo.validation.batch-size:500}") int batchSize,
+                                   @Value("${app.todo.validation.protocol:http}") String protocol) {
+        if (!failureMode.equals("open") && !failureMode.equals("closed")) {
+            throw new IllegalArgumentException("app.todo.validation.failure-mode must be 'open' or 'closed'");
+        }
+        if (!protocol.equals("http") && !protocol.equals("grpc")) {
+            throw new IllegalArgumentException("app.todo.validation.protocol must be 'http' or 'grpc'");
+        }
+        this.daprClient = daprClient;
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.failClosed = failureMode.equals("closed");
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeMinDelay = hedgeMinDelay;
+        this.batchSize = batchSize;
+        // Stubs on the Dapr client's channel to the sidecar, addressed to validation-service
+        this.grpcStub = protocol.equals("grpc")
+            ? daprClient.newGrpcStub(VALIDATION_SERVICE_APP_ID, ValidationGrpc::newFutureStub) : null;
+        this.grpcStreamStub = protocol.equals("grpc")
+            ? daprClient.newGrpcStub(VALIDATION_SERVICE_APP_ID, ValidationGrpc::newStub) : null;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "validations");
+
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .failureRateThreshold(failureRateThreshold)
+            .slidingWindowSize(windowSize)
+            .minimumNumberOfCalls(Math.min(windowSize, 10))
+            .waitDurationInOpenState(openDuration)
+            // Calls shed by the bulkhead never reached validation-service and say nothing about its health
+            .ignoreException(ValidationServiceClient::isShedByBulkhead)
+            .build());
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(maxConcurrentCalls)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        this.circuitBreaker = circuitBreakers.circuitBreaker(VALIDATION_SERVICE_APP_ID);
+        this.bulkhead = bulkheads.bulkhead(VALIDATION_SERVICE_APP_ID);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        circuitBreaker.getEventPublisher()
+            .onStateTransition(event -> log.warn("Validation circuit breaker: {}", event.getStateTransition()));
+
+        this.latency = Timer.builder("todo.validation.latency")
+            .description("Latency of successful validation-service invocations")
+            .publishPercentiles(0.95)
+            .register(meterRegistry);
+        this.hedges = Counter.builder("todo.validation.hedges")
+            .description("Second attempts started because the first was slower than p95")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Validate a todo name, from the cache when it was validated under the current rules before.
+     */
+    public Mono<ValidationResponse> validate(String name) {
+        String key = keyOf(rulesVersion, name);
+        // Suppress cancellation: the invocation is shared with every concurrent caller of the same name
+        return Mono.fromFuture(() -> cache.get(key, (k, executor) -> call(name).toFuture()), true)
+            .onErrorResume(this::fallback);
+    }
+
+    /**
+     * Validate many todo names, returning results in the same order. Only names missing from the cache
+     * are sent to validation-service, in batches. When a batch fails, the fallback applies to its names
+     * only; cached names and those of other batches keep their results.
+     */
+    public Mono<List<ValidationResponse>> validateAll(List<String> names) {
+        String version = rulesVersion;
+        List<String> keys = new ArrayList<>(names.size());
+        Map<String, String> nameByKey = new LinkedHashMap<>();
+        for (String name : names) {
+            String key = keyOf(version, name);
+            keys.add(key);
+            nameByKey.putIfAbsent(key, name);
+        }
+        AtomicReference<Throwable> batchError = new AtomicReference<>();
+        return Mono.fromFuture(() -> cache.getAll(nameByKey.keySet(),
+                    (missing, executor) -> callBatches(missing, nameByKey, batchError).toFuture()), true)
+            .flatMap(results -> {
+                if (results.keySet().containsAll(nameByKey.keySet())) {
+                    return Mono.just(keys.stream().map(results::get).toList());
+                }
+                // Names can also be missing because a concurrent call's batch failed for them
+                Throwable error = batchError.get() != null
+                    ? batchError.get() : new IllegalStateException("Batch validation failed");
+                return fallback(error)
+                    .map(response -> keys.stream().map(key -> results.getOrDefault(key, response)).toList());
+            })
+            .onErrorResume(error -> fallback(error)
+                .map(response -> Collections.nCopies(names.size(), response)));
+    }
+
+    /**
+     * One logical call: a deadline around one or two attempts, recorded by the circuit breaker.
+     */
+    private Mono<ValidationResponse> call(String name) {
+        Mono<ValidationResponse> call = attempt(name);
+        if (hedgeEnabled) {
+            Duration delay = hedgeDelay();
+            call = Mono.firstWithValue(call, Mono.delay(delay)
+                .then(Mono.defer(() -> {
+                    log.debug("Validation of {} slower than {}, hedging", name, delay);
+                    hedges.increment();
+                    return attempt(name);
+                })));
+        }
+        return guarded(call);
+    }
+
+    /**
+     * Validate the names behind the given cache keys, one batch invocation per {@code batch-size} names.
+     * The names of a failed batch are left out of the results, so they are not cached, and the failure
+     * is kept in {@code batchError}.
+     */
+    private Mono<Map<String, ValidationResponse>> callBatches(Set<? extends String> keys,
+                                                             Map<String, String> nameByKey,
+                                                             AtomicReference<Throwable> batchError) {
+        return Flux.fromIterable(keys)
+            .buffer(batchSize)
+            .concatMap(batch -> {
+                List<String> names = batch.stream().map(nameByKey::get).toList();
+                return guarded(invokeBatch(names).transformDeferred(BulkheadOperator.of(bulkhead)))
+                    .map(response -> {
+                        Map<String, ValidationResponse> results = new HashMap<>(batch.size());
+                        for (int i = 0; i < batch.size(); i++) {
+                            results.put(batch.get(i), response.getResults().get(i));
+                        }
+                        return results;
+                    })
+                    .onErrorResume(error -> {
+                        batchError.set(error);
+                        return Mono.just(Map.of());
+                    });
+            })
+            .reduce(new HashMap<>(keys.size()), (all, results) -> {
+                all.putAll(results);
+                return all;
+            });
+    }
+
+    /**
+     * Apply the deadline and record the outcome with the circuit breaker.
+     */
+    private <T> Mono<T> guarded(Mono<T> call) {
+        return call
+            .timeout(timeout)
+            .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+
+    /**
+     * One invocation, holding a bulkhead permit while in flight.
+     */
+    private Mono<ValidationResponse> attempt(String name) {
+        return Mono.defer(() -> {
+                long start = System.nanoTime();
+                return invoke(name)
+                    .doOnNext(response -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+            })
+            .transformDeferred(BulkheadOperator.of(bulkhead));
+    }
+
+    private Mono<ValidationResponse> invoke(String name) {
+        log.info("Invoking validation-service for uncached name: {}", name);
+
+        if (grpcStub != null) {
+            return invokeGrpc(name)
+                .doOnNext(response -> updateRulesVersion(response.getRulesVersion()));
+        }
+        return daprClient.invokeMethod(
+                VALIDATION_SERVICE_APP_ID,
+                "validate",
+                Map.of("name", name),
+                HttpExtension.POST,
+                ValidationResponse.class
+            )
+            .doOnNext(response -> updateRulesVersion(response.getRulesVersion()));
+    }
+
+    private Mono<BatchValidationResponse> invokeBatch(List<String> names) {
+        log.info("Invoking validation-service for {} uncached names", names.size());
+
+        Mono<BatchValidationResponse> call = grpcStreamStub != null
+            ? invokeGrpcStream(names)
+            : daprClient.invokeMethod(
+                VALIDATION_SERVICE_APP_ID,
+                "validate/batch",
+                Map.of("names", names),
+                HttpExtension.POST,
+                BatchValidationResponse.class
+            );
+        return call
+            .doOnNext(response -> {
+                if (response.getResults() == null || response.getResults().size() != names.size()) {
+                    throw new IllegalStateException("Batch validation returned a result count that doesn't match the request");
+                }
+                updateRulesVersion(response.getRulesVersion());
+            });
+    }
+
+    /**
+     * One {@code Validate} call; cancelling the subscription, e.g. on timeout, cancels the call.
+     */
+    private Mono<ValidationResponse> invokeGrpc(String name) {
+        return Mono.create(sink -> {
+            ListenableFuture<ValidateResponse> future = grpcStub.validate(ValidateRequest.newBuilder().setName(name).build());
+            sink.onCancel(() -> future.cancel(true));
+            future.addListener(() -> {
+                try {
+                    sink.success(fromGrpc(future.get()));
+                } catch (ExecutionException e) {
+                    sink.error(e.getCause());
+                } catch (Exception e) {
+                    sink.error(e);
+                }
+            }, MoreExecutors.directExecutor());
+        });
+    }
+
+    /**
+     * Validate a batch on one {@code ValidateStream} call: all names are sent, then the responses are
+     * collected in order. The batch reports the rules version of its last response.
+     */
+    private Mono<BatchValidationResponse> invokeGrpcStream(List<String> names) {
+        return Mono.create(sink -> {
+            StreamObserver<ValidateRequest> requests = grpcStreamStub.validateStream(
+                new ClientResponseObserver<ValidateRequest, ValidateResponse>() {
+                    private final List<ValidationResponse> results = new ArrayList<>(names.size());
+
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<ValidateRequest> call) {
+                        sink.onCancel(() -> call.cancel("Batch validation cancelled", null));
+                    }
+
+                    @Override
+                    public void onNext(ValidateResponse response) {
+                        results.add(fromGrpc(response));
+                    }
+
+                    @Override
+                    public void onError(Throwable error) {
+                        sink.error(error);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        BatchValidationResponse response = new BatchValidationResponse();
+                        response.setResults(results);
+                        response.setRulesVersion(results.isEmpty() ? null : results.get(results.size() - 1).getRulesVersion());
+                        sink.success(response);
+                    }
+                });
+            for (String name : names) {
+                requests.onNext(ValidateRequest.newBuilder().setName(name).build());
+            }
+            requests.onCompleted();
+        });
+    }
+
+    private static ValidationResponse fromGrpc(ValidateResponse response) {
+        ValidationResponse result = new ValidationResponse(response.getValid());
+        result.setMessage(response.getMessage());
+        result.setRulesVersion(response.getRulesVersion().isEmpty() ? null : response.getRulesVersion());
+        return result;
+    }
+
+    private void updateRulesVersion(String version) {
+        if (version != null && !Objects.equals(version, rulesVersion)) {
+            log.info("Validation rules version changed to {}", version);
+            rulesVersion = version;
+        }
+    }
+
+    /**
+     * Validation only looks at a name's length and lowercase form.
+     */
+    private static String keyOf(String rulesVersion, String name) {
+        return rulesVersion + ":" + name.length() + ":" + name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The observed p95 latency, but no less than the configured minimum.
+     */
+    private Duration hedgeDelay() {
+        for (ValueAtPercentile percentile : latency.takeSnapshot().percentileValues()) {
+            long p95 = (long) percentile.value(TimeUnit.NANOSECONDS);
+            if (p95 > hedgeMinDelay.toNanos()) {
+                return Duration.ofNanos(p95);
+            }
+        }
+        return hedgeMinDelay;
+    }
+
+    private Mono<ValidationResponse> fallback(Throwable error) {
+        String reason = reasonOf(error);
+        meterRegistry.counter("todo.validation.fallbacks", "mode", failClosed ? "closed" : "open", "reason", reason)
+            .increment();
+        if (failClosed) {
+            log.warn("Validation unavailable ({}), rejecting", reason);
+            return Mono.error(new ValidationUnavailableException("Validation service unavailable: " + reason, error));
+        }
+        log.warn("Validation unavailable ({}), accepting name", reason);
+        return Mono.just(new ValidationResponse(true));
+    }
+
+    /**
+     * Whether a call failed only because the bulkhead was full, including hedged calls whose every
+     * attempt was shed.
+     */
+    private static boolean isShedByBulkhead(Throwable error) {
+        if (error instanceof NoSuchElementException && error.getSuppressed().length > 0) {
+            return Arrays.stream(error.getSuppressed()).allMatch(BulkheadFullException.class::isInstance);
+        }
+        return error instanceof BulkheadFullException;
+    }
+
+    private static String reasonOf(Throwable error) {
+        // When every hedged attempt failed, the individual errors are attached as suppressed
+        if (error instanceof NoSuchElementException && error.getSuppressed().length > 0) {
+            error = error.getSuppressed()[0];
+        }
+        if (error instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (error instanceof CallNotPermittedException) {
+            return "circuit_open";
+        }
+        if (error instanceof BulkheadFullException) {
+            return "bulkhead_full";
+        }
+        return "error";
+    }
+
+    /**
+     * Validation response from validation service.
+     */
+    public static class ValidationResponse {
+        private boolean valid;
+        private String message;
+        private String rulesVersion;
+
+        public ValidationResponse() {}
+
+        public ValidationResponse(boolean valid) {
+            this.valid = valid;
+        }
+
+        public boolean isValid() {
+            return valid;
+        }
+
+        public void setValid(boolean valid) {
+            this.valid = valid;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        public String getRulesVersion() {
+            return rulesVersion;
+        }
+
+        public void setRulesVersion(String rulesVersion) {
+            this.rulesVersion = rulesVersion;
+        }
+    }
+
+    /**
+     * Batch validation response from validation service; results are in request order.
+     */
+    public static class BatchValidationResponse {
+        private List<ValidationResponse> results;
+        private String rulesVersion;
+
+        public List<ValidationResponse> getResults() {
+            return results;
+        }
+
+        public void setResults(List<ValidationResponse> results) {
+            this.results = results;
+        }
+
+        public String getRulesVersion() {
+            return rulesVersion;
+        }
+
+        public void setRulesVersion(String rulesVersion) {
+            this.rulesVersion = rulesVersion;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.dash0.examples.todoservice;
+
+/**
+ * Exception thrown when a todo name can't be validated and validation fails closed.
+ */
+public class ValidationUnavailableException extends RuntimeException {
+    
+    public ValidationUnavailableException(String message) {
+        super(message);
+    }
+    
+    public ValidationUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
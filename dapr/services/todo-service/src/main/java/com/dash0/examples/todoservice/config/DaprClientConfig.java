@@ -0,0 +1,20 @@
+package com.dash0.examples.todoservice.config;
+
+import io.dapr.client.DaprClientBuilder;
+import io.dapr.client.DaprPreviewClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DaprClientConfig {
+
+    /**
+     * Client for Dapr's preview APIs, such as bulk publish.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public DaprPreviewClient daprPreviewClient() {
+        return new DaprClientBuilder().buildPreviewClient();
+    }
+}
@@ -0,0 +1,207 @@
+package com.dash0.examples.todoservice;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dapr.client.DaprClient;
+import io.dapr.client.DaprPreviewClient;
+import io.dapr.client.domain.BulkPublishResponse;
+import io.dapr.client.domain.State;
+import io.dapr.client.domain.StateOptions;
+import io.dapr.client.domain.TransactionalStateOperation;
+import io.dapr.exceptions.DaprException;
+import io.dapr.utils.TypeRef;
+import io.grpc.Status;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory stand-in for the sidecar's state and bulk publish APIs, for tests.
+ *
+ * Values are stored as JSON, so readers get their own copies. State transactions are atomic and check
+ * ETags like the sidecar does: an operation with an ETag needs the key's current ETag, and a first-write
+ * operation without one needs the key to be absent. A mismatch fails the whole transaction with the
+ * error the sidecar returns over gRPC. Reads of a key can be held back until several readers have read
+ * it, so that concurrent writers are sure to read the same ETag, or fail like an unreachable store.
+ */
+final class InMemoryStateStore {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final Map<String, StoredValue> values = new HashMap<>();
+    private final Map<String, CountDownLatch> readGates = new ConcurrentHashMap<>();
+    private final Set<String> failingReads = ConcurrentHashMap.newKeySet();
+    private final List<Object> published = new ArrayList<>();
+    private final AtomicInteger transactions = new AtomicInteger();
+    private final AtomicInteger conflicts = new AtomicInteger();
+    private final AtomicInteger failuresToInject = new AtomicInteger();
+    private long nextEtag = 1;
+
+    /**
+     * A client backed by this store, which is also a {@link DaprPreviewClient}.
+     */
+    DaprClient client() {
+        return (DaprClient) Proxy.newProxyInstance(
+            DaprClient.class.getClassLoader(),
+            new Class<?>[] {DaprClient.class, DaprPreviewClient.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "getState" -> getState((String) args[1], typeOf(args[2]));
+                case "getBulkState" -> getBulkState(castKeys(args[1]), typeOf(args[2]));
+                case "executeStateTransaction" -> executeStateTransaction(castOperations(args[1]));
+                case "publishEvents" -> publishEvents((List<?>) args[3]);
+                case "publishEvent" -> Mono.empty();
+                case "close" -> null;
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    /**
+     * Hold back the first {@code readers} reads of {@code key} until all of them have read it.
+     */
+    void holdReads(String key, int readers) {
+        readGates.put(key, new CountDownLatch(readers));
+    }
+
+    /**
+     * Fail every read of {@code key} with an error, as an unreachable state store would.
+     */
+    void failReads(String key) {
+        failingReads.add(key);
+    }
+
+    /**
+     * Fail the next {@code count} transactions with an error that is not an ETag conflict.
+     */
+    void failTransactions(int count) {
+        failuresToInject.set(count);
+    }
+
+    synchronized <T> T read(String key, Class<T> type) {
+        StoredValue stored = values.get(key);
+        return stored == null ? null : objectMapper.convertValue(stored.json(), type);
+    }
+
+    synchronized List<String> keysStartingWith(String prefix) {
+        return values.keySet().stream().filter(key -> key.startsWith(prefix)).sorted().toList();
+    }
+
+    synchronized List<Object> published() {
+        return List.copyOf(published);
+    }
+
+    int transactions() {
+        return transactions.get();
+    }
+
+    int conflicts() {
+        return conflicts.get();
+    }
+
+    private Mono<State<Object>> getState(String key, JavaType type) {
+        if (failingReads.contains(key)) {
+            return Mono.error(DaprException.propagate(Status.UNAVAILABLE
+                .withDescription("state store todo-statestore is not reachable")
+                .asRuntimeException()));
+        }
+        Mono<State<Object>> read = Mono.fromCallable(() -> readState(key, type));
+        CountDownLatch gate = readGates.get(key);
+        if (gate == null || gate.getCount() == 0) {
+            return read;
+        }
+        return Mono.fromCallable(() -> {
+                State<Object> state = readState(key, type);
+                gate.countDown();
+                if (!gate.await(10, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Not enough concurrent readers of " + key);
+                }
+                return state;
+            })
+            .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<List<State<Object>>> getBulkState(List<String> keys, JavaType type) {
+        return Mono.fromCallable(() -> keys.stream().map(key -> readState(key, type)).toList());
+    }
+
+    private synchronized State<Object> readState(String key, JavaType type) {
+        StoredValue stored = values.get(key);
+        if (stored == null) {
+            // The sidecar reports a missing key with an empty ETag
+            return new State<>(key, null, "");
+        }
+        return new State<>(key, objectMapper.convertValue(stored.json(), type), stored.etag());
+    }
+
+    private Mono<Void> executeStateTransaction(List<TransactionalStateOperation<?>> operations) {
+        return Mono.fromRunnable(() -> apply(operations));
+    }
+
+    private synchronized void apply(List<TransactionalStateOperation<?>> operations) {
+        transactions.incrementAndGet();
+        if (failuresToInject.getAndUpdate(count -> Math.max(0, count - 1)) > 0) {
+            throw DaprException.propagate(Status.INTERNAL
+                .withDescription("error while executing state transaction: connection refused")
+                .asRuntimeException());
+        }
+        for (TransactionalStateOperation<?> operation : operations) {
+            State<?> state = operation.getRequest();
+            StoredValue stored = values.get(state.getKey());
+            String etag = state.getEtag();
+            boolean firstWrite = state.getOptions() != null
+                && state.getOptions().getConcurrency() == StateOptions.Concurrency.FIRST_WRITE;
+            boolean mismatch = etag != null && !etag.isEmpty()
+                ? stored == null || !stored.etag().equals(etag)
+                : firstWrite && stored != null;
+            if (mismatch) {
+                conflicts.incrementAndGet();
+                throw DaprException.propagate(Status.INTERNAL
+                    .withDescription("error while executing state transaction: possible etag mismatch. "
+                        + "error from state store: ERR Error running script")
+                    .asRuntimeException());
+            }
+        }
+        for (TransactionalStateOperation<?> operation : operations) {
+            State<?> state = operation.getRequest();
+            if (operation.getOperation() == TransactionalStateOperation.OperationType.DELETE) {
+                values.remove(state.getKey());
+            } else {
+                values.put(state.getKey(),
+                    new StoredValue(objectMapper.valueToTree(state.getValue()), Long.toString(nextEtag++)));
+            }
+        }
+    }
+
+    private synchronized Mono<BulkPublishResponse<Object>> publishEvents(List<?> events) {
+        published.addAll(events);
+        return Mono.just(new BulkPublishResponse<>());
+    }
+
+    private JavaType typeOf(Object type) {
+        Type javaType = type instanceof TypeRef<?> typeRef ? typeRef.getType() : (Class<?>) type;
+        return objectMapper.constructType(javaType);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> castKeys(Object keys) {
+        return (List<String>) keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<TransactionalStateOperation<?>> castOperations(Object operations) {
+        return (List<TransactionalStateOperation<?>>) operations;
+    }
+
+    private record StoredValue(JsonNode json, String etag) {
+    }
+}
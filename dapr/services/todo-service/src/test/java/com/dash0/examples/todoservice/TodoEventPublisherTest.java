@@ -0,0 +1,89 @@
+package com.dash0.examples.todoservice;
+
+import io.dapr.client.DaprPreviewClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Sinks;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class TodoEventPublisherTest {
+
+    private final InMemoryStateStore stateStore = new InMemoryStateStore();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TodoEventPublisher todoEventPublisher = new TodoEventPublisher(
+        (DaprPreviewClient) stateStore.client(), meterRegistry, 10000, 100, Duration.ofMillis(10), 3, Duration.ofSeconds(5));
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        todoEventPublisher.shutdown();
+    }
+
+    @Test
+    void publishesEveryEventFromConcurrentPublishers() throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> publishers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread publisher = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int j = 0; j < 500; j++) {
+                    todoEventPublisher.publish(new TodoEvent("created", new Todo("todo " + j)));
+                }
+            });
+            publisher.start();
+            publishers.add(publisher);
+        }
+        start.countDown();
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(stateStore.published()).hasSize(4000));
+        assertThat(meterRegistry.get("todo.events.dropped").tag("reason", "overflow").counter().count()).isZero();
+    }
+
+    @Test
+    void countsEventsAsBufferedUntilTheirBatchIsPublished() throws InterruptedException {
+        // The first batch never completes, so everything after it waits
+        Sinks.Empty<Void> firstBatch = Sinks.empty();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        TodoEventPublisher publisher = new TodoEventPublisher(hangingClient(firstBatch), registry,
+            5, 2, Duration.ofHours(1), 0, Duration.ofMillis(100));
+
+        for (int i = 0; i < 10; i++) {
+            publisher.publish(new TodoEvent("created", new Todo("todo " + i)));
+        }
+
+        // Two events are in flight, five wait in batches and the rest did not fit
+        assertThat(registry.get("todo.events.queue.depth").gauge().value()).isEqualTo(5);
+        assertThat(registry.get("todo.events.dropped").tag("reason", "overflow").counter().count()).isEqualTo(3);
+
+        publisher.shutdown();
+        publisher.publish(new TodoEvent("created", new Todo("late")));
+        assertThat(registry.get("todo.events.dropped").tag("reason", "stopped").counter().count()).isEqualTo(1);
+        assertThat(registry.get("todo.events.dropped").tag("reason", "overflow").counter().count()).isEqualTo(3);
+    }
+
+    private static DaprPreviewClient hangingClient(Sinks.Empty<Void> response) {
+        return (DaprPreviewClient) Proxy.newProxyInstance(
+            DaprPreviewClient.class.getClassLoader(),
+            new Class<?>[] {DaprPreviewClient.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "publishEvents" -> response.asMono();
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+}
@@ -0,0 +1,61 @@
+package com.dash0.examples.todoservice;
+
+import io.dapr.client.DaprClient;
+import io.dapr.client.domain.State;
+import io.dapr.client.domain.TransactionalStateOperation;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class TodoIndexMigrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final InMemoryStateStore stateStore = new InMemoryStateStore();
+    private final DaprClient daprClient = stateStore.client();
+    private final TodoIndex todoIndex = new TodoIndex(daprClient, 4, 10);
+    private final Set<String> legacyIds = IntStream.range(0, 20).mapToObj(i -> "todo-" + i).collect(Collectors.toSet());
+
+    @Test
+    void movesTheLegacyIndexIntoTheShards() {
+        writeLegacyIndex();
+
+        TodoIndexMigration migration = new TodoIndexMigration(todoIndex);
+
+        await().atMost(TIMEOUT).until(() -> stateStore.keysStartingWith("todo-index").stream().noneMatch("todo-index"::equals));
+        assertThat(todoIndex.findAllIds().block(TIMEOUT)).isEqualTo(legacyIds);
+        migration.shutdown();
+    }
+
+    @Test
+    void movesTheIdsOnceWhenReplicasMigrateTogether() {
+        writeLegacyIndex();
+        // Both replicas read the legacy key before either of them commits
+        stateStore.holdReads("todo-index", 2);
+
+        List<Integer> moved = Flux.merge(
+                todoIndex.absorb("todo-index").subscribeOn(Schedulers.parallel()),
+                todoIndex.absorb("todo-index").subscribeOn(Schedulers.parallel()))
+            .collectList()
+            .block(TIMEOUT);
+
+        assertThat(moved).containsExactlyInAnyOrder(20, 0);
+        assertThat(stateStore.conflicts()).isEqualTo(1);
+        assertThat(todoIndex.findAllIds().block(TIMEOUT)).isEqualTo(legacyIds);
+        assertThat(todoIndex.absorb("todo-index").block(TIMEOUT)).isZero();
+    }
+
+    private void writeLegacyIndex() {
+        daprClient.executeStateTransaction("todo-statestore", List.of(new TransactionalStateOperation<>(
+            TransactionalStateOperation.OperationType.UPSERT, new State<>("todo-index", legacyIds, null)))).block(TIMEOUT);
+    }
+}
@@ -0,0 +1,114 @@
+package com.dash0.examples.todoservice;
+
+import io.dapr.client.DaprClient;
+import io.dapr.client.DaprPreviewClient;
+import io.dapr.client.domain.State;
+import io.dapr.client.domain.TransactionalStateOperation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class TodoOutboxTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final InMemoryStateStore stateStore = new InMemoryStateStore();
+    private DaprClient daprClient;
+    private TodoEventPublisher todoEventPublisher;
+    private TodoOutbox todoOutbox;
+    private TodoRepository todoRepository;
+
+    @BeforeEach
+    void setUp() {
+        daprClient = stateStore.client();
+        TodoIndex todoIndex = new TodoIndex(daprClient, 4, 10);
+        TodoCacheInvalidator invalidator = new TodoCacheInvalidator(daprClient, false,
+            "todo-cache-pubsub", "todo-cache-invalidation", "test");
+        TodoCache todoCache = new TodoCache(daprClient, invalidator, new SimpleMeterRegistry(), 1000,
+            Duration.ofMinutes(10), Duration.ofSeconds(30));
+        todoEventPublisher = new TodoEventPublisher((DaprPreviewClient) daprClient, new SimpleMeterRegistry(),
+            1000, 100, Duration.ofMillis(10), 3, Duration.ofSeconds(5));
+        // Sweeps are run by the tests; every entry counts as overdue
+        todoOutbox = new TodoOutbox(daprClient, todoEventPublisher, todoIndex,
+            Duration.ofHours(1), Duration.ZERO, 100);
+        todoRepository = new TodoRepository(daprClient, todoIndex, todoCache, todoOutbox, 100, 4, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        todoOutbox.shutdown();
+        todoEventPublisher.shutdown();
+    }
+
+    @Test
+    void concurrentCreatesShareNoOutboxKey() {
+        List<TodoEvent> events = Flux.range(0, 50)
+            .flatMap(i -> {
+                Todo todo = new Todo("todo " + i);
+                TodoEvent event = new TodoEvent("created", todo);
+                return todoRepository.save(todo, event).thenReturn(event).subscribeOn(Schedulers.parallel());
+            })
+            .collectList()
+            .block(TIMEOUT);
+
+        assertThat(todoRepository.count().block(TIMEOUT)).isEqualTo(50);
+        assertThat(stateStore.keysStartingWith("todo-outbox-index-")).isEmpty();
+        await().atMost(TIMEOUT).untilAsserted(() -> {
+            assertThat(publishedEventIds()).containsAll(events.stream().map(TodoEvent::getEventId).toList());
+            assertThat(stateStore.keysStartingWith("todo-outbox-")).isEmpty();
+        });
+
+        // Published events leave their index entries behind until the sweep drops them
+        todoOutbox.sweep().block(TIMEOUT);
+        assertThat(shardEntries()).hasSize(50).allMatch(entry -> !entry.contains("/"));
+        assertThat(todoRepository.findAll().count().block(TIMEOUT)).isEqualTo(50);
+    }
+
+    @Test
+    void sweepRepublishesEntriesThatWereNotPublished() {
+        // A replica that died after committing the todo, before publishing its event
+        Todo todo = new Todo("orphaned");
+        TodoEvent event = new TodoEvent("created", todo);
+        String shardKey = "todo-index-" + Math.floorMod(todo.getId().hashCode(), 4);
+        daprClient.executeStateTransaction("todo-statestore", List.of(
+            upsert("todo-" + todo.getId(), todo),
+            upsert("todo-outbox-" + event.getEventId(), event),
+            upsert(shardKey, Set.of(todo.getId(), todo.getId() + "/" + event.getEventId())))).block(TIMEOUT);
+        assertThat(todoRepository.count().block(TIMEOUT)).isEqualTo(1);
+
+        todoOutbox.sweep().block(TIMEOUT);
+
+        await().atMost(TIMEOUT).untilAsserted(() -> {
+            assertThat(publishedEventIds()).containsExactly(event.getEventId());
+            assertThat(stateStore.keysStartingWith("todo-outbox-")).isEmpty();
+        });
+        todoOutbox.sweep().block(TIMEOUT);
+        assertThat(shardEntries()).containsExactly(todo.getId());
+    }
+
+    private List<String> publishedEventIds() {
+        return stateStore.published().stream().map(event -> ((TodoEvent) event).getEventId()).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> shardEntries() {
+        return stateStore.keysStartingWith("todo-index-").stream()
+            .flatMap(key -> ((List<String>) stateStore.read(key, List.class)).stream())
+            .toList();
+    }
+
+    private static TransactionalStateOperation<Object> upsert(String key, Object value) {
+        return new TransactionalStateOperation<>(TransactionalStateOperation.OperationType.UPSERT,
+            new State<>(key, value, null));
+    }
+}
@@ -0,0 +1,151 @@
+package com.dash0.examples.todoservice;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.dapr.client.DaprClient;
+import io.dapr.client.DaprPreviewClient;
+import io.dapr.client.domain.BulkPublishResponse;
+import io.dapr.client.domain.State;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link TodoRepository#save} against a simulated sidecar with a fixed latency per call.
+ *
+ * {@code blockingSave} reproduces the original implementation, which blocked a request thread for
+ * each of its three sidecar round-trips, on a pool sized like Tomcat's default. {@code reactiveSave}
+ * uses the current non-blocking, transactional write path. Each invocation issues {@link #CONCURRENT_REQUESTS} saves at once.
+ *
+ * Run with:
+ * <pre>
+ * ./mvnw test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.dash0.examples.todoservice.TodoRepositorySaveBenchmark
+ * </pre>
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TodoRepositorySaveBenchmark {
+
+    static final int CONCURRENT_REQUESTS = 1000;
+    private static final int REQUEST_THREADS = 200;
+    private static final Duration SIDECAR_LATENCY = Duration.ofMillis(5);
+    private static final String STATE_STORE_NAME = "todo-statestore";
+
+    private DaprClient daprClient;
+    private TodoRepository todoRepository;
+    private TodoIndex todoIndex;
+    private TodoOutbox todoOutbox;
+    private ExecutorService requestThreads;
+    private Scheduler requestScheduler;
+
+    @Setup
+    public void setUp() {
+        // Keep per-request INFO logging out of the measurement
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+
+        daprClient = simulatedSidecar();
+
+        todoIndex = new TodoIndex(daprClient, 16, 10);
+        TodoCacheInvalidator invalidator = new TodoCacheInvalidator(daprClient, false,
+            "todo-cache-pubsub", "todo-cache-invalidation", "benchmark");
+        TodoCache todoCache = new TodoCache(daprClient, invalidator, new SimpleMeterRegistry(), 10_000,
+            Duration.ofMinutes(10), Duration.ofSeconds(30));
+        TodoEventPublisher todoEventPublisher = new TodoEventPublisher((DaprPreviewClient) daprClient,
+            new SimpleMeterRegistry(), 10_000, 100, Duration.ofMillis(50), 3, Duration.ofSeconds(5));
+        todoOutbox = new TodoOutbox(daprClient, todoEventPublisher, todoIndex,
+            Duration.ofHours(1), Duration.ofHours(1), 100);
+        todoRepository = new TodoRepository(daprClient, todoIndex, todoCache, todoOutbox, 100, 4, 100);
+        requestThreads = Executors.newFixedThreadPool(REQUEST_THREADS);
+        requestScheduler = Schedulers.fromExecutorService(requestThreads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        todoOutbox.shutdown();
+        requestScheduler.dispose();
+        requestThreads.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENT_REQUESTS)
+    public void blockingSave() {
+        Flux.range(0, CONCURRENT_REQUESTS)
+            .flatMap(i -> blockingSave(new Todo("todo " + i)).subscribeOn(requestScheduler), CONCURRENT_REQUESTS)
+            .blockLast();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENT_REQUESTS)
+    public void reactiveSave() {
+        Flux.range(0, CONCURRENT_REQUESTS)
+            .flatMap(i -> todoRepository.save(new Todo("todo " + i)).subscribeOn(requestScheduler),
+                CONCURRENT_REQUESTS)
+            .blockLast();
+    }
+
+    /**
+     * The original write path: todo write, index read and index write, each blocking the calling thread.
+     */
+    private Mono<Todo> blockingSave(Todo todo) {
+        return Mono.fromRunnable(() -> {
+                daprClient.saveState(STATE_STORE_NAME, "todo-" + todo.getId(), todo).block();
+                String shardKey = todoIndex.shardKey(todoIndex.shardOf(todo.getId()));
+                daprClient.getState(STATE_STORE_NAME, shardKey, Set.class).block();
+                daprClient.saveState(STATE_STORE_NAME, shardKey, Set.of(todo.getId())).block();
+            })
+            .then(Mono.just(todo));
+    }
+
+    /**
+     * A DaprClient whose state and publish calls complete after {@link #SIDECAR_LATENCY} without holding
+     * a thread. A plain proxy keeps mocking overhead out of the measurement.
+     */
+    private static DaprClient simulatedSidecar() {
+        return (DaprClient) Proxy.newProxyInstance(
+            DaprClient.class.getClassLoader(),
+            new Class<?>[] {DaprClient.class, DaprPreviewClient.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "saveState", "executeStateTransaction" -> Mono.delay(SIDECAR_LATENCY).then();
+                case "publishEvents" -> Mono.delay(SIDECAR_LATENCY).map(tick -> new BulkPublishResponse<>());
+                case "getState" -> Mono.delay(SIDECAR_LATENCY)
+                    .map(tick -> new State<>((String) args[1], Set.of(), "1"));
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(TodoRepositorySaveBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
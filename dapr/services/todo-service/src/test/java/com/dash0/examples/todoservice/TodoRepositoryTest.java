@@ -0,0 +1,112 @@
+package com.dash0.examples.todoservice;
+
+import io.dapr.client.DaprClient;
+import io.dapr.client.DaprPreviewClient;
+import io.dapr.exceptions.DaprException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TodoRepositoryTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final InMemoryStateStore stateStore = new InMemoryStateStore();
+    private TodoEventPublisher todoEventPublisher;
+    private TodoOutbox todoOutbox;
+    private TodoRepository todoRepository;
+
+    @BeforeEach
+    void setUp() {
+        DaprClient daprClient = stateStore.client();
+        // A single index shard, so every write goes to the same shard
+        TodoIndex todoIndex = new TodoIndex(daprClient, 1, 10);
+        TodoCacheInvalidator invalidator = new TodoCacheInvalidator(daprClient, false,
+            "todo-cache-pubsub", "todo-cache-invalidation", "test");
+        TodoCache todoCache = new TodoCache(daprClient, invalidator, new SimpleMeterRegistry(), 1000,
+            Duration.ofMinutes(10), Duration.ofSeconds(30));
+        todoEventPublisher = new TodoEventPublisher((DaprPreviewClient) daprClient, new SimpleMeterRegistry(),
+            1000, 100, Duration.ofMillis(10), 3, Duration.ofSeconds(5));
+        todoOutbox = new TodoOutbox(daprClient, todoEventPublisher, todoIndex,
+            Duration.ofHours(1), Duration.ofHours(1), 100);
+        todoRepository = new TodoRepository(daprClient, todoIndex, todoCache, todoOutbox, 100, 4, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        todoOutbox.shutdown();
+        todoEventPublisher.shutdown();
+    }
+
+    @Test
+    void retriesTransactionsThatConflictOnAnIndexShard() {
+        // Both writers read the empty shard before either of them commits
+        stateStore.holdReads("todo-index-0", 2);
+
+        Flux.merge(todoRepository.save(new Todo("first")), todoRepository.save(new Todo("second")))
+            .blockLast(TIMEOUT);
+
+        assertThat(stateStore.conflicts()).isEqualTo(1);
+        assertThat(stateStore.transactions()).isEqualTo(3);
+        assertThat(todoRepository.findAll().map(Todo::getName).collectList().block(TIMEOUT))
+            .containsExactlyInAnyOrder("first", "second");
+        assertThat(todoRepository.count().block(TIMEOUT)).isEqualTo(2);
+    }
+
+    @Test
+    void keepsEveryTodoWhenManyWritersShareAShard() {
+        List<String> names = Flux.range(0, 50)
+            .flatMap(i -> todoRepository.save(new Todo("todo " + i)).subscribeOn(Schedulers.parallel()))
+            .map(Todo::getName)
+            .collectList()
+            .block(TIMEOUT);
+
+        assertThat(names).hasSize(50);
+        assertThat(todoRepository.count().block(TIMEOUT)).isEqualTo(50);
+    }
+
+    @Test
+    void savesWithoutBlockingTheSubscribingThread() {
+        // Both saves start on the same single thread; the shard read of the first one only completes
+        // once the second one has read it too, which a blocking save would never let happen
+        stateStore.holdReads("todo-index-0", 2);
+
+        Flux.merge(
+                todoRepository.save(new Todo("first")).subscribeOn(Schedulers.single()),
+                todoRepository.save(new Todo("second")).subscribeOn(Schedulers.single()))
+            .blockLast(TIMEOUT);
+
+        assertThat(todoRepository.count().block(TIMEOUT)).isEqualTo(2);
+    }
+
+    @Test
+    void failsToListTodosWhenAShardCannotBeRead() {
+        todoRepository.save(new Todo("first")).block(TIMEOUT);
+        stateStore.failReads("todo-index-0");
+
+        // A listing missing a shard's todos must not look complete
+        assertThatThrownBy(() -> todoRepository.findAll().collectList().block(TIMEOUT))
+            .isInstanceOf(DaprException.class);
+        assertThatThrownBy(() -> todoRepository.count().block(TIMEOUT))
+            .isInstanceOf(DaprException.class);
+    }
+
+    @Test
+    void doesNotRetryOtherTransactionFailures() {
+        stateStore.failTransactions(1);
+
+        assertThatThrownBy(() -> todoRepository.save(new Todo("lost")).block(TIMEOUT))
+            .hasMessage("Failed to save todo");
+        assertThat(stateStore.transactions()).isEqualTo(1);
+        assertThat(todoRepository.count().block(TIMEOUT)).isZero();
+    }
+}
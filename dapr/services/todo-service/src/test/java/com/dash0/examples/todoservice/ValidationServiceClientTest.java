@@ -0,0 +1,106 @@
+package com.dash0.examples.todoservice;
+
+import io.dapr.client.DaprClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidationServiceClientTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger invocations = new AtomicInteger();
+    private volatile Mono<Object> nextResponse = Mono.just(new ValidationServiceClient.ValidationResponse(true));
+
+    @Test
+    void doesNotOpenTheCircuitWhenTheBulkheadSheds() {
+        // One permit, and a window of four calls in which every failure would open the circuit
+        ValidationServiceClient client = newClient(1, 4);
+        Sinks.One<Object> slowResponse = Sinks.one();
+        nextResponse = slowResponse.asMono();
+        Mono<ValidationServiceClient.ValidationResponse> inFlight = client.validate("slow").cache();
+        inFlight.subscribe();
+
+        nextResponse = Mono.just(new ValidationServiceClient.ValidationResponse(true));
+        for (int i = 0; i < 10; i++) {
+            assertThat(client.validate("shed " + i).block(TIMEOUT).isValid()).isTrue();
+        }
+        assertThat(fallbacks("bulkhead_full")).isEqualTo(10);
+
+        slowResponse.tryEmitValue(new ValidationServiceClient.ValidationResponse(true));
+        inFlight.block(TIMEOUT);
+        assertThat(client.validate("after").block(TIMEOUT).isValid()).isTrue();
+        assertThat(fallbacks("circuit_open")).isZero();
+        assertThat(invocations).hasValue(2);
+    }
+
+    @Test
+    void appliesTheFallbackOnlyToNamesWhoseBatchFailed() {
+        ValidationServiceClient client = newClient(50, 20);
+        nextResponse = Mono.just(new ValidationServiceClient.ValidationResponse(false));
+        assertThat(client.validate("cached").block(TIMEOUT).isValid()).isFalse();
+
+        nextResponse = Mono.error(new IllegalStateException("validation-service down"));
+        List<ValidationServiceClient.ValidationResponse> results =
+            client.validateAll(List.of("uncached", "cached", "also uncached")).block(TIMEOUT);
+
+        assertThat(results).extracting(ValidationServiceClient.ValidationResponse::isValid)
+            .containsExactly(true, false, true);
+        assertThat(fallbacks("error")).isEqualTo(1);
+
+        // Fallback results are not cached
+        nextResponse = Mono.just(batchOf(false, false));
+        assertThat(client.validateAll(List.of("uncached", "also uncached")).block(TIMEOUT))
+            .extracting(ValidationServiceClient.ValidationResponse::isValid)
+            .containsExactly(false, false);
+    }
+
+    private static ValidationServiceClient.BatchValidationResponse batchOf(boolean... valid) {
+        List<ValidationServiceClient.ValidationResponse> results = new ArrayList<>();
+        for (boolean result : valid) {
+            results.add(new ValidationServiceClient.ValidationResponse(result));
+        }
+        ValidationServiceClient.BatchValidationResponse response = new ValidationServiceClient.BatchValidationResponse();
+        response.setResults(results);
+        return response;
+    }
+
+    private ValidationServiceClient newClient(int maxConcurrentCalls, int windowSize) {
+        return new ValidationServiceClient(daprClient(), meterRegistry, 1000, Duration.ofMinutes(5),
+            Duration.ofSeconds(1), "open", 50, windowSize, Duration.ofMinutes(1), maxConcurrentCalls,
+            false, Duration.ofMillis(20), 500, "http");
+    }
+
+    private double fallbacks(String reason) {
+        var counter = meterRegistry.find("todo.validation.fallbacks").tag("reason", reason).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    private DaprClient daprClient() {
+        return (DaprClient) Proxy.newProxyInstance(
+            DaprClient.class.getClassLoader(),
+            new Class<?>[] {DaprClient.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "invokeMethod" -> respond();
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    private Mono<Object> respond() {
+        Mono<Object> response = nextResponse;
+        return Mono.defer(() -> {
+            invocations.incrementAndGet();
+            return response;
+        });
+    }
+}
@@ -0,0 +1,44 @@
+#!/bin/bash
+
+# Validation service load test
+# Starts the service once with platform threads and once with virtual threads, drives
+# POST /validate with a fixed number of concurrent requests and prints throughput and latency.
+# Virtual threads need Java 21: point JAVA_HOME at a Java 21 runtime.
+
+set -e
+
+# Configuration
+CONCURRENCY="${CONCURRENCY:-1000}"
+DURATION="${DURATION:-30}"    # seconds measured per mode
+WARMUP="${WARMUP:-10}"        # seconds of warm-up per mode
+PORT="${PORT:-18081}"
+JAVA="${JAVA_HOME:+${JAVA_HOME}/bin/}java"
+
+SERVICE_DIR="$( cd "$( dirname "${BASH_SOURCE[0]}" )/.." && pwd )"
+cd "${SERVICE_DIR}"
+
+echo "Java: $(${JAVA} -version 2>&1 | head -1)"
+echo "Concurrency: ${CONCURRENCY}, duration: ${DURATION}s"
+
+./mvnw -q -DskipTests package test-compile
+
+for virtual in false true; do
+    echo ""
+    echo "=== spring.threads.virtual.enabled=${virtual} ==="
+    ${JAVA} -jar target/validation-service-1.0.0.jar \
+        --server.port="${PORT}" \
+        --spring.threads.virtual.enabled="${virtual}" \
+        > "target/load-test-virtual-${virtual}.log" 2>&1 &
+    SERVICE_PID=$!
+    trap 'kill ${SERVICE_PID} 2>/dev/null' EXIT
+
+    until curl -sf "http://localhost:${PORT}/health" > /dev/null; do
+        sleep 1
+    done
+
+    ${JAVA} -cp target/test-classes com.dash0.examples.validationservice.ValidationLoadGenerator \
+        "http://localhost:${PORT}" "${CONCURRENCY}" "${DURATION}" "${WARMUP}"
+
+    kill ${SERVICE_PID}
+    wait ${SERVICE_PID} 2>/dev/null || true
+done
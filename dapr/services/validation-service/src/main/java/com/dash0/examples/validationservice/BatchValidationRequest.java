@@ -0,0 +1,41 @@
+package com.dash0.examples.validationservice;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request model for the batch validation endpoint
+ */
+public class BatchValidationRequest {
+    
+    public static final int MAX_NAMES = 1000;
+    
+    @NotNull(message = "Names are required")
+    @Size(max = MAX_NAMES, message = "At most " + MAX_NAMES + " names per request")
+    @JsonProperty("names")
+    private List<String> names;
+    
+    public BatchValidationRequest() {}
+    
+    public BatchValidationRequest(List<String> names) {
+        this.names = names;
+    }
+    
+    public List<String> getNames() {
+        return names;
+    }
+    
+    public void setNames(List<String> names) {
+        this.names = names;
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchValidationRequest{" +
+                "names=" + names +
+                '}';
+    }
+}
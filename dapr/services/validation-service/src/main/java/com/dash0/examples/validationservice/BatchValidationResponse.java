@@ -0,0 +1,48 @@
+package com.dash0.examples.validationservice;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Response model for the batch validation endpoint; results are in request order
+ */
+public class BatchValidationResponse {
+    
+    @JsonProperty("results")
+    private List<ValidationResponse> results;
+    
+    @JsonProperty("rulesVersion")
+    private String rulesVersion;
+    
+    public BatchValidationResponse() {}
+    
+    public BatchValidationResponse(List<ValidationResponse> results, String rulesVersion) {
+        this.results = results;
+        this.rulesVersion = rulesVersion;
+    }
+    
+    public List<ValidationResponse> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<ValidationResponse> results) {
+        this.results = results;
+    }
+    
+    public String getRulesVersion() {
+        return rulesVersion;
+    }
+    
+    public void setRulesVersion(String rulesVersion) {
+        this.rulesVersion = rulesVersion;
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchValidationResponse{" +
+                "results=" + results +
+                ", rulesVersion='" + rulesVersion + '\'' +
+                '}';
+    }
+}
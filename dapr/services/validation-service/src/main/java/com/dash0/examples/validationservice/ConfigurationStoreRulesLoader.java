@@ -0,0 +1,129 @@
+package com.dash0.examples.validationservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dapr.client.DaprClient;
+import io.dapr.client.domain.ConfigurationItem;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads validation rules from a Dapr configuration store and reloads them whenever they change.
+ *
+ * The rules are a JSON document (the same shape as {@code GET /rules}) stored under one key. Once the
+ * subscription to that key is established, the current value is read, so no change can slip in between;
+ * every later change arrives on the subscription. Each value is compiled and swapped in by
+ * {@link ValidationService#applyRules}. Invalid documents are logged and the active rules are kept.
+ * If the sidecar is unavailable, or the subscription ends, the built-in or last applied rules stay active
+ * and the subscription is retried with backoff.
+ */
+@Component
+@ConditionalOnProperty(name = "app.validation.rules.source", havingValue = "configuration")
+public class ConfigurationStoreRulesLoader {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ConfigurationStoreRulesLoader.class);
+    
+    private final DaprClient daprClient;
+    private final ValidationService validationService;
+    private final ObjectMapper objectMapper;
+    private final String storeName;
+    private final String key;
+    private final Map<String, String> subscribeMetadata;
+    private volatile String subscriptionId;
+    private Disposable subscription;
+    
+    public ConfigurationStoreRulesLoader(DaprClient daprClient,
+                                         ValidationService validationService,
+                                         ObjectMapper objectMapper,
+                                         @Value("${app.validation.rules.config-store:validation-configstore}") String storeName,
+                                         @Value("${app.validation.rules.config-key:validation-rules}") String key,
+                                         @Value("${app.validation.rules.notify-channel:}") String notifyChannel) {
+        this.daprClient = daprClient;
+        this.validationService = validationService;
+        this.objectMapper = objectMapper;
+        this.storeName = storeName;
+        this.key = key;
+        // The PostgreSQL configuration store needs to know which NOTIFY channel its trigger uses
+        this.subscribeMetadata = notifyChannel.isEmpty() ? Map.of() : Map.of("pgNotifyChannel", notifyChannel);
+    }
+    
+    @PostConstruct
+    public void start() {
+        subscription = Flux.defer(() -> daprClient.subscribeConfiguration(storeName, List.of(key), subscribeMetadata))
+                .concatMap(response -> {
+                    if (subscriptionId == null) {
+                        subscriptionId = response.getSubscriptionId();
+                        logger.info("Subscribed to validation rules {} in configuration store {}", key, storeName);
+                        // Read the current value now that no change can be missed
+                        return daprClient.getConfiguration(storeName, key).flux();
+                    }
+                    return Flux.fromIterable(response.getItems().values());
+                })
+                // The stream also ends without an error, e.g. when the sidecar restarts; resubscribe the same way
+                .concatWith(Flux.defer(() -> {
+                    logger.warn("Validation rules subscription ended, keeping the active rules");
+                    return Flux.error(new SubscriptionEndedException());
+                }))
+                .doOnError(error -> {
+                    subscriptionId = null;
+                    if (!(error instanceof SubscriptionEndedException)) {
+                        logger.warn("Validation rules subscription failed, keeping the active rules: {}", error.getMessage());
+                    }
+                })
+                // Transient: the backoff starts over once a resubscription delivered rules again
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30))
+                        .transientErrors(true))
+                .subscribe(this::apply);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        String id = subscriptionId;
+        if (id != null) {
+            try {
+                daprClient.unsubscribeConfiguration(id, storeName).block(Duration.ofSeconds(2));
+            } catch (Exception e) {
+                logger.warn("Failed to unsubscribe from validation rules: {}", e.getMessage());
+            }
+        }
+    }
+    
+    private void apply(ConfigurationItem item) {
+        if (item == null || item.getValue() == null || item.getValue().isBlank()) {
+            logger.info("No validation rules under {} in configuration store {}, keeping the active rules", key, storeName);
+            return;
+        }
+        try {
+            ValidationRules rules = objectMapper.readValue(item.getValue(), ValidationRules.class);
+            if (!validationService.applyRules(rules)) {
+                logger.debug("Validation rules {} (store version {}) are unchanged", key, item.getVersion());
+            }
+        } catch (Exception e) {
+            logger.error("Ignoring invalid validation rules {} (store version {}): {}", key, item.getVersion(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Signals that the subscription stream completed, so it is retried like a failed one.
+     */
+    private static final class SubscriptionEndedException extends RuntimeException {
+        
+        SubscriptionEndedException() {
+            super("Validation rules subscription ended", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.dash0.examples.validationservice;
+
+import io.dapr.client.DaprClient;
+import io.dapr.client.domain.State;
+import io.dapr.client.domain.StateOptions;
+import io.dapr.client.domain.TransactionalStateOperation;
+import io.dapr.exceptions.DaprException;
+import io.dapr.utils.TypeRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * History store backed by a Dapr state store, shared by all replicas.
+ *
+ * Each appended batch is split by minute and every part is saved under its own key,
+ * {@code validation-history-{yyyyMMddHHmm}-{replica}-{sequence}}. The keys of one minute are listed in
+ * {@code validation-history-index-{yyyyMMddHHmm}}, so a time-range query reads one index key per minute
+ * and then only the batches it needs. Batches and index entries are written in one state transaction;
+ * index updates are guarded by their ETag and retried on conflict, since several replicas may append to
+ * the same minute. Everything expires after the configured TTL.
+ */
+@Component
+@ConditionalOnProperty(name = "app.validation.history.store", havingValue = "state")
+public class DaprStateHistoryStore implements HistoryStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DaprStateHistoryStore.class);
+    private static final String BATCH_PREFIX = "validation-history-";
+    private static final String INDEX_PREFIX = "validation-history-index-";
+    private static final DateTimeFormatter MINUTE = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+    private static final TypeRef<List<ValidationHistory>> BATCH_TYPE = new TypeRef<List<ValidationHistory>>() {};
+    private static final TypeRef<List<String>> INDEX_TYPE = new TypeRef<List<String>>() {};
+    private static final StateOptions FIRST_WRITE =
+        new StateOptions(StateOptions.Consistency.STRONG, StateOptions.Concurrency.FIRST_WRITE);
+    private static final int MINUTES_PER_READ = 60;
+    private static final int BATCHES_PER_READ = 100;
+    private static final int MAX_CONFLICT_RETRIES = 5;
+    private static final String ETAG_MISMATCH = "etag mismatch";
+    
+    private final DaprClient daprClient;
+    private final String stateStore;
+    private final Map<String, String> ttlMetadata;
+    private final String replica;
+    private final AtomicLong sequence = new AtomicLong();
+    
+    public DaprStateHistoryStore(
+            DaprClient daprClient,
+            @Value("${app.validation.history.state-store:validation-statestore}") String stateStore,
+            @Value("${app.validation.history.ttl:7d}") Duration ttl) {
+        this.daprClient = daprClient;
+        this.stateStore = stateStore;
+        this.ttlMetadata = Map.of("ttlInSeconds", Long.toString(ttl.toSeconds()));
+        // A restarted container keeps its host name, so add the start time to keep batch keys unique
+        String hostname = Optional.ofNullable(System.getenv("HOSTNAME")).orElse("local");
+        this.replica = hostname + "-" + Long.toString(System.currentTimeMillis(), 36);
+    }
+    
+    @Override
+    public void append(List<ValidationHistory> entries) {
+        Map<String, List<ValidationHistory>> batchesByIndexKey = new TreeMap<>();
+        Map<String, String> batchKeyByIndexKey = new HashMap<>();
+        for (ValidationHistory entry : entries) {
+            String minute = MINUTE.format(entry.getTimestamp());
+            batchesByIndexKey.computeIfAbsent(INDEX_PREFIX + minute, key -> new ArrayList<>()).add(entry);
+            batchKeyByIndexKey.computeIfAbsent(INDEX_PREFIX + minute,
+                    key -> BATCH_PREFIX + minute + "-" + replica + "-" + sequence.incrementAndGet());
+        }
+        
+        // Batch keys stay the same across retries, so a retried transaction rewrites the same batches
+        for (int attempt = 0; ; attempt++) {
+            try {
+                List<TransactionalStateOperation<?>> operations = new ArrayList<>();
+                List<String> indexKeys = new ArrayList<>(batchesByIndexKey.keySet());
+                for (State<List<String>> index : daprClient.getBulkState(stateStore, indexKeys, INDEX_TYPE).block()) {
+                    List<String> batchKeys = index.getValue() != null ? new ArrayList<>(index.getValue()) : new ArrayList<>();
+                    String batchKey = batchKeyByIndexKey.get(index.getKey());
+                    operations.add(upsert(new State<>(batchKey, batchesByIndexKey.get(index.getKey()), null, ttlMetadata, null)));
+                    if (!batchKeys.contains(batchKey)) {
+                        batchKeys.add(batchKey);
+                        operations.add(upsert(new State<>(index.getKey(), batchKeys, etagOf(index), ttlMetadata, FIRST_WRITE)));
+                    }
+                }
+                daprClient.executeStateTransaction(stateStore, operations).block();
+                return;
+            } catch (DaprException e) {
+                if (!isEtagConflict(e) || attempt >= MAX_CONFLICT_RETRIES) {
+                    throw e;
+                }
+                logger.debug("ETag conflict on history index, retry #{}", attempt + 1);
+            }
+        }
+    }
+    
+    @Override
+    public HistoryPage find(LocalDateTime from, LocalDateTime to, int limit, HistoryPage.Cursor cursor) {
+        LocalDateTime upper = cursor == null || cursor.timestamp().isAfter(to) ? to : cursor.timestamp();
+        int needed = limit + 1 + (cursor == null ? 0 : cursor.skip());
+        LocalDateTime oldestMinute = from.truncatedTo(ChronoUnit.MINUTES);
+        
+        // Walk back one chunk of minutes at a time until the page (plus one entry) is filled; a minute's
+        // entries are all in that minute's batches, so earlier minutes cannot hold newer entries
+        List<ValidationHistory> matching = new ArrayList<>();
+        LocalDateTime minute = upper.truncatedTo(ChronoUnit.MINUTES);
+        while (!minute.isBefore(oldestMinute) && matching.size() < needed) {
+            List<String> indexKeys = new ArrayList<>(MINUTES_PER_READ);
+            for (int i = 0; i < MINUTES_PER_READ && !minute.isBefore(oldestMinute); i++, minute = minute.minusMinutes(1)) {
+                indexKeys.add(INDEX_PREFIX + MINUTE.format(minute));
+            }
+            List<ValidationHistory> chunk = new ArrayList<>();
+            for (List<ValidationHistory> batch : loadBatches(indexKeys)) {
+                for (ValidationHistory entry : batch) {
+                    LocalDateTime timestamp = entry.getTimestamp();
+                    if (!timestamp.isBefore(from) && timestamp.isBefore(to) && !timestamp.isAfter(upper)) {
+                        chunk.add(entry);
+                    }
+                }
+            }
+            chunk.sort(Comparator.comparing(ValidationHistory::getTimestamp).reversed());
+            matching.addAll(chunk);
+        }
+        return HistoryPage.paginate(matching, cursor, limit);
+    }
+    
+    /**
+     * Load the batches listed in the given index keys, in a stable order so paging is repeatable
+     */
+    private List<List<ValidationHistory>> loadBatches(List<String> indexKeys) {
+        List<String> batchKeys = new ArrayList<>();
+        for (State<List<String>> index : daprClient.getBulkState(stateStore, indexKeys, INDEX_TYPE).block()) {
+            if (index.getValue() != null) {
+                batchKeys.addAll(index.getValue());
+            }
+        }
+        batchKeys.sort(Comparator.naturalOrder());
+        
+        List<List<ValidationHistory>> batches = new ArrayList<>(batchKeys.size());
+        for (int start = 0; start < batchKeys.size(); start += BATCHES_PER_READ) {
+            List<String> keys = batchKeys.subList(start, Math.min(start + BATCHES_PER_READ, batchKeys.size()));
+            Map<String, List<ValidationHistory>> byKey = new HashMap<>();
+            for (State<List<ValidationHistory>> batch : daprClient.getBulkState(stateStore, keys, BATCH_TYPE).block()) {
+                if (batch.getValue() != null) {
+                    byKey.put(batch.getKey(), batch.getValue());
+                }
+            }
+            // Bulk reads do not preserve key order
+            for (String key : keys) {
+                batches.add(byKey.getOrDefault(key, List.of()));
+            }
+        }
+        return batches;
+    }
+    
+    private static TransactionalStateOperation<?> upsert(State<?> state) {
+        return new TransactionalStateOperation<>(TransactionalStateOperation.OperationType.UPSERT, state);
+    }
+    
+    /**
+     * A state transaction fails as a whole with gRPC status INTERNAL (ERR_STATE_TRANSACTION over HTTP)
+     * whatever the cause; the store's "possible etag mismatch" in the message tells a conflict apart.
+     */
+    private static boolean isEtagConflict(DaprException e) {
+        if (!"INTERNAL".equals(e.getErrorCode()) && !"ERR_STATE_TRANSACTION".equals(e.getErrorCode())) {
+            return false;
+        }
+        return e.getMessage() != null && e.getMessage().toLowerCase(Locale.ROOT).contains(ETAG_MISMATCH);
+    }
+    
+    /**
+     * Dapr reports a missing key with an empty ETag; a null ETag makes a first-write insert-only.
+     */
+    private static String etagOf(State<?> state) {
+        String etag = state.getEtag();
+        return etag == null || etag.isEmpty() ? null : etag;
+    }
+}
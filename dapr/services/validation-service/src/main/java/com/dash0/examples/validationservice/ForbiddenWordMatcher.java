@@ -0,0 +1,271 @@
+package com.dash0.examples.validationservice;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton over the forbidden words of one set of rules.
+ *
+ * The automaton is compiled once when the rules are loaded; {@link #findFirst} then checks a name
+ * against every word in a single pass over its characters, lower-casing them on the fly, without
+ * allocating. When several words occur in a name, the one listed first in the rules is reported, as
+ * with the previous word-by-word check.
+ *
+ * When compiled with normalization, words and names are both reduced by {@link TextNormalizer} before
+ * matching, while the word is still reported as written in the rules. A name that is not canonical
+ * yet is then copied once before the scan.
+ *
+ * States are numbered in breadth-first order, so the children of a state are consecutive states,
+ * sorted by character: the transitions of state {@code s} are the states in
+ * {@code [childStart[s], childStart[s + 1])}, looked up by binary search on {@code label}. Most
+ * characters of a clean name are read at the root, so its transitions also get a direct lookup table.
+ */
+public final class ForbiddenWordMatcher {
+
+    private static final int ROOT = 0;
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final String[] words;
+    private final boolean normalize;
+    private final char[] label;
+    private final int[] childStart;
+    private final int[] failure;
+    private final int[] firstWord;
+    private final int[] rootTransitions;
+    private final long[] alphabet = new long[(Character.MAX_VALUE + 1) / Long.SIZE];
+
+    private ForbiddenWordMatcher(String[] words, String[] patterns, boolean normalize) {
+        this.words = words;
+        this.normalize = normalize;
+
+        Trie trie = new Trie(patterns);
+        int states = trie.size;
+        this.label = new char[states];
+        this.childStart = new int[states + 1];
+        this.failure = new int[states];
+        this.firstWord = new int[states];
+
+        // Renumber the trie breadth-first, which makes the children of each state contiguous
+        int[] trieNodeOf = new int[states];
+        int[] parent = new int[states];
+        int[] wordAt = new int[states];
+        int next = 1;
+        for (int state = 0; state < states; state++) {
+            childStart[state] = next;
+            for (int child = trie.firstChild[trieNodeOf[state]]; child != Trie.NONE; child = trie.nextSibling[child]) {
+                trieNodeOf[next] = child;
+                parent[next] = state;
+                label[next] = trie.label[child];
+                next++;
+            }
+            wordAt[state] = trie.wordAt[trieNodeOf[state]];
+        }
+        childStart[states] = next;
+
+        char maxRootChar = childStart[1] > 1 ? label[childStart[1] - 1] : '\0';
+        this.rootTransitions = new int[maxRootChar + 1];
+        for (int state = 1; state < childStart[1]; state++) {
+            rootTransitions[label[state]] = state;
+        }
+
+        // Parents come before their children, so failure links can be computed in state order
+        firstWord[ROOT] = wordAt[ROOT];
+        for (int state = 1; state < states; state++) {
+            char c = label[state];
+            alphabet[c >>> 6] |= 1L << c;
+            int fallback = parent[state] == ROOT ? ROOT : failure[parent[state]];
+            int target = parent[state] == ROOT ? ROOT : transition(fallback, c);
+            while (target < 0) {
+                if (fallback == ROOT) {
+                    target = ROOT;
+                } else {
+                    fallback = failure[fallback];
+                    target = transition(fallback, c);
+                }
+            }
+            failure[state] = target;
+            firstWord[state] = Math.min(wordAt[state], firstWord[target]);
+        }
+    }
+
+    /**
+     * Compile the given words for case-insensitive matching. {@code null} entries are ignored.
+     */
+    public static ForbiddenWordMatcher compile(List<String> forbiddenWords) {
+        return compile(forbiddenWords, false);
+    }
+
+    /**
+     * Compile the given words, optionally for matching after {@link TextNormalizer normalization}.
+     * {@code null} entries, and with normalization words that normalize to nothing, are ignored.
+     */
+    public static ForbiddenWordMatcher compile(List<String> forbiddenWords, boolean normalize) {
+        String[] words = forbiddenWords == null ? new String[0] : forbiddenWords.stream()
+                .map(word -> word == null ? null : lowerCase(word))
+                .toArray(String[]::new);
+        String[] patterns = words;
+        if (normalize) {
+            patterns = new String[words.length];
+            for (int i = 0; i < words.length; i++) {
+                String pattern = words[i] == null ? null : TextNormalizer.normalize(words[i]).toString();
+                // A word made only of separators would otherwise match every name
+                patterns[i] = pattern == null || pattern.isEmpty() ? null : pattern;
+            }
+        }
+        return new ForbiddenWordMatcher(words, patterns, normalize);
+    }
+
+    /**
+     * Return the lower-cased forbidden word contained in {@code name} that is listed first in the
+     * rules, or {@code null} if the name contains none of them.
+     */
+    public String findFirst(CharSequence name) {
+        int index = indexOfFirst(name);
+        return index < 0 ? null : words[index];
+    }
+
+    /**
+     * Like {@link #findFirst}, but return the position of the word in the rules, or -1.
+     */
+    public int indexOfFirst(CharSequence name) {
+        return scan(normalize ? TextNormalizer.normalize(name) : name);
+    }
+
+    private int scan(CharSequence text) {
+        int best = firstWord[ROOT];
+        int state = ROOT;
+        for (int i = 0, length = text.length(); i < length && best > 0; i++) {
+            char c = lowerCase(text.charAt(i));
+            if ((alphabet[c >>> 6] & (1L << c)) == 0) {
+                // No word contains this character, so no match can span it
+                state = ROOT;
+                continue;
+            }
+            int target = -1;
+            while (state != ROOT && (target = transition(state, c)) < 0) {
+                state = failure[state];
+            }
+            state = state != ROOT ? target : c < rootTransitions.length ? rootTransitions[c] : ROOT;
+            if (firstWord[state] < best) {
+                best = firstWord[state];
+            }
+        }
+        return best == NO_MATCH ? -1 : best;
+    }
+
+    /**
+     * The lower-cased forbidden word at the given position in the rules.
+     */
+    public String word(int index) {
+        return words[index];
+    }
+
+    /**
+     * Number of forbidden words, including ignored ones, i.e. the bound of {@link #indexOfFirst}.
+     */
+    public int wordCount() {
+        return words.length;
+    }
+
+    /**
+     * Number of automaton states, for diagnostics.
+     */
+    public int size() {
+        return label.length;
+    }
+
+    private int transition(int state, char c) {
+        int from = childStart[state];
+        int to = childStart[state + 1];
+        if (from == to) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(label, from, to, c);
+        return index < 0 ? -1 : index;
+    }
+
+    private static char lowerCase(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static String lowerCase(String word) {
+        // Lower-case one char at a time, exactly as findFirst does with the text
+        char[] chars = word.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = lowerCase(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Build-time trie with first-child/next-sibling links. Words are inserted in sorted order, so the
+     * child to follow, if it exists, is always the one added last, and siblings end up sorted.
+     */
+    private static final class Trie {
+
+        static final int NONE = -1;
+
+        int size;
+        char[] label;
+        int[] firstChild;
+        int[] lastChild;
+        int[] nextSibling;
+        int[] wordAt;
+
+        Trie(String[] words) {
+            int capacity = 1;
+            for (String word : words) {
+                if (word != null) {
+                    capacity += word.length();
+                }
+            }
+            label = new char[capacity];
+            firstChild = new int[capacity];
+            lastChild = new int[capacity];
+            nextSibling = new int[capacity];
+            wordAt = new int[capacity];
+            newNode(NONE, '\0');
+
+            Integer[] order = new Integer[words.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing((Integer i) -> words[i], Comparator.nullsFirst(Comparator.naturalOrder())));
+            for (int index : order) {
+                String word = words[index];
+                if (word == null) {
+                    continue;
+                }
+                int node = ROOT;
+                for (int i = 0; i < word.length(); i++) {
+                    char c = word.charAt(i);
+                    int last = lastChild[node];
+                    node = last != NONE && label[last] == c ? last : newNode(node, c);
+                }
+                wordAt[node] = Math.min(wordAt[node], index);
+            }
+        }
+
+        private int newNode(int parent, char c) {
+            int node = size++;
+            label[node] = c;
+            firstChild[node] = NONE;
+            lastChild[node] = NONE;
+            nextSibling[node] = NONE;
+            wordAt[node] = NO_MATCH;
+            if (parent != NONE) {
+                if (lastChild[parent] == NONE) {
+                    firstChild[parent] = node;
+                } else {
+                    nextSibling[lastChild[parent]] = node;
+                }
+                lastChild[parent] = node;
+            }
+            return node;
+        }
+    }
+}
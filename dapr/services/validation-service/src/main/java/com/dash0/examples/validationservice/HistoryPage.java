@@ -0,0 +1,117 @@
+package com.dash0.examples.validationservice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Response model for the history endpoint: one page of entries, newest first, plus the token of the
+ * next page, which is absent on the last page
+ */
+public class HistoryPage {
+    
+    @JsonProperty("entries")
+    private List<ValidationHistory> entries;
+    
+    @JsonProperty("nextPageToken")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextPageToken;
+    
+    public HistoryPage() {}
+    
+    public HistoryPage(List<ValidationHistory> entries, String nextPageToken) {
+        this.entries = entries;
+        this.nextPageToken = nextPageToken;
+    }
+    
+    /**
+     * Cut one page out of {@code newestFirst}, which must hold the entries of the queried time range,
+     * newest first, starting at the cursor position or earlier. Returns a next page token only if at
+     * least one more entry follows the page.
+     */
+    public static HistoryPage paginate(List<ValidationHistory> newestFirst, Cursor cursor, int limit) {
+        List<ValidationHistory> page = new ArrayList<>(Math.min(limit, newestFirst.size()));
+        int skip = cursor == null ? 0 : cursor.skip();
+        for (ValidationHistory entry : newestFirst) {
+            if (cursor != null) {
+                int order = entry.getTimestamp().compareTo(cursor.timestamp());
+                if (order > 0) {
+                    continue;
+                }
+                if (order == 0 && skip > 0) {
+                    skip--;
+                    continue;
+                }
+            }
+            if (page.size() == limit) {
+                return new HistoryPage(page, nextCursor(page, cursor).encode());
+            }
+            page.add(entry);
+        }
+        return new HistoryPage(page, null);
+    }
+    
+    /**
+     * Cursor after the last entry of {@code page}; entries sharing its timestamp are counted, so paging
+     * never skips or repeats entries with identical timestamps
+     */
+    private static Cursor nextCursor(List<ValidationHistory> page, Cursor previous) {
+        LocalDateTime last = page.get(page.size() - 1).getTimestamp();
+        int skip = 0;
+        for (int i = page.size() - 1; i >= 0 && page.get(i).getTimestamp().equals(last); i--) {
+            skip++;
+        }
+        if (previous != null && previous.timestamp().equals(last)) {
+            skip += previous.skip();
+        }
+        return new Cursor(last, skip);
+    }
+    
+    public List<ValidationHistory> getEntries() {
+        return entries;
+    }
+    
+    public void setEntries(List<ValidationHistory> entries) {
+        this.entries = entries;
+    }
+    
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+    
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+    
+    /**
+     * Position in the history: continue with entries older than {@code timestamp}, or equal to it after
+     * skipping the first {@code skip} of those. Encoded as an opaque URL-safe token.
+     */
+    public record Cursor(LocalDateTime timestamp, int skip) {
+        
+        public String encode() {
+            String raw = timestamp + "|" + skip;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        public static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.lastIndexOf('|');
+                Cursor cursor = new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Integer.parseInt(raw.substring(separator + 1)));
+                if (cursor.skip() < 0) {
+                    throw new IllegalArgumentException("Invalid page token");
+                }
+                return cursor;
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid page token", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.dash0.examples.validationservice;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Persistence for validation history, written in batches by {@link ValidationHistoryRecorder}
+ */
+public interface HistoryStore {
+    
+    /**
+     * Persist a batch of entries, ordered oldest first. Throws if the batch could not be stored; the
+     * caller retries the whole batch.
+     */
+    void append(List<ValidationHistory> entries);
+    
+    /**
+     * One page of the entries with {@code from <= timestamp < to}, newest first, continuing at
+     * {@code cursor} (null for the first page)
+     */
+    HistoryPage find(LocalDateTime from, LocalDateTime to, int limit, HistoryPage.Cursor cursor);
+}
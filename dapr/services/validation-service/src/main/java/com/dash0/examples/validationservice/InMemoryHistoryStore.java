@@ -0,0 +1,58 @@
+package com.dash0.examples.validationservice;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * History store that keeps the most recent {@code capacity} entries in a ring buffer; the history is
+ * lost on restart and is per replica
+ */
+@Component
+@ConditionalOnProperty(name = "app.validation.history.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryHistoryStore implements HistoryStore {
+    
+    private final ValidationHistory[] ring;
+    private int next;
+    private int size;
+    
+    public InMemoryHistoryStore(@Value("${app.validation.history.memory.capacity:10000}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("History capacity must be at least 1");
+        }
+        this.ring = new ValidationHistory[capacity];
+    }
+    
+    @Override
+    public synchronized void append(List<ValidationHistory> entries) {
+        for (ValidationHistory entry : entries) {
+            ring[next] = entry;
+            next = (next + 1) % ring.length;
+            size = Math.min(size + 1, ring.length);
+        }
+    }
+    
+    @Override
+    public HistoryPage find(LocalDateTime from, LocalDateTime to, int limit, HistoryPage.Cursor cursor) {
+        LocalDateTime upper = cursor == null || cursor.timestamp().isAfter(to) ? to : cursor.timestamp();
+        int needed = limit + 1 + (cursor == null ? 0 : cursor.skip());
+        List<ValidationHistory> matching = new ArrayList<>();
+        synchronized (this) {
+            for (int i = 1; i <= size && matching.size() < needed; i++) {
+                ValidationHistory entry = ring[Math.floorMod(next - i, ring.length)];
+                LocalDateTime timestamp = entry.getTimestamp();
+                if (!timestamp.isBefore(from) && timestamp.isBefore(to) && !timestamp.isAfter(upper)) {
+                    matching.add(entry);
+                }
+            }
+        }
+        // Recording threads may enqueue slightly out of timestamp order
+        matching.sort(Comparator.comparing(ValidationHistory::getTimestamp).reversed());
+        return HistoryPage.paginate(matching, cursor, limit);
+    }
+}
@@ -0,0 +1,46 @@
+package com.dash0.examples.validationservice;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link PrecomputedValidationResponse} from its pre-encoded JSON, skipping Jackson. Write-only;
+ * registered ahead of the Jackson converter.
+ */
+public class PrecomputedResponseHttpMessageConverter extends AbstractHttpMessageConverter<PrecomputedValidationResponse> {
+    
+    public PrecomputedResponseHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+    
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PrecomputedValidationResponse.class.isAssignableFrom(clazz);
+    }
+    
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+    
+    @Override
+    protected PrecomputedValidationResponse readInternal(Class<? extends PrecomputedValidationResponse> clazz,
+            HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Precomputed responses cannot be read", inputMessage);
+    }
+    
+    @Override
+    protected Long getContentLength(PrecomputedValidationResponse response, MediaType contentType) {
+        return (long) response.getJson().length;
+    }
+    
+    @Override
+    protected void writeInternal(PrecomputedValidationResponse response, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(response.getJson());
+    }
+}
@@ -0,0 +1,48 @@
+package com.dash0.examples.validationservice;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Validation response that is created once per rules version and outcome and shared by all requests
+ * with that outcome. It carries its own JSON encoding, which {@link PrecomputedResponseHttpMessageConverter}
+ * writes as is. Instances are immutable.
+ */
+public final class PrecomputedValidationResponse extends ValidationResponse {
+    
+    private final byte[] json;
+    
+    public PrecomputedValidationResponse(boolean valid, String message, String rulesVersion, ObjectMapper objectMapper) {
+        super(valid, message);
+        super.setRulesVersion(rulesVersion);
+        try {
+            this.json = objectMapper.writeValueAsBytes(this);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot encode validation response", e);
+        }
+    }
+    
+    /**
+     * The JSON encoding of this response; must not be modified
+     */
+    @JsonIgnore
+    public byte[] getJson() {
+        return json;
+    }
+    
+    @Override
+    public void setValid(boolean valid) {
+        throw new UnsupportedOperationException("Precomputed responses are shared and cannot be modified");
+    }
+    
+    @Override
+    public void setMessage(String message) {
+        throw new UnsupportedOperationException("Precomputed responses are shared and cannot be modified");
+    }
+    
+    @Override
+    public void setRulesVersion(String rulesVersion) {
+        throw new UnsupportedOperationException("Precomputed responses are shared and cannot be modified");
+    }
+}
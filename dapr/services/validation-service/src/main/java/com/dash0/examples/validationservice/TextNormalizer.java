@@ -0,0 +1,188 @@
+package com.dash0.examples.validationservice;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+/**
+ * Reduces text to a canonical form before forbidden words are matched, so that common evasions such as
+ * {@code "SP4M"}, {@code "s p a m"}, or "spam" written with accents, with a Cyrillic "a" or with
+ * zero-width spaces between its letters, still match {@code "spam"}.
+ *
+ * The pipeline, applied in one pass per character:
+ * <ol>
+ *   <li>compatibility decomposition (NFKD), which also turns full-width and styled letters into plain
+ *       ones, followed by removing the combining marks, i.e. accents;</li>
+ *   <li>locale-independent case folding;</li>
+ *   <li>mapping look-alike letters (Cyrillic and Greek homoglyphs) and leetspeak digits and symbols to
+ *       the Latin letters they imitate;</li>
+ *   <li>removing control and zero-width characters, and replacing each run of whitespace and
+ *       punctuation by a single space.</li>
+ * </ol>
+ * Word boundaries are kept, so a word cannot match across two words, e.g. {@code "bad"} in
+ * {@code "grab a drink"}. Only runs of single characters, as in {@code "s p a m"} or {@code "s.p.a.m"},
+ * are joined into one word.
+ *
+ * Names that are pure ASCII, the common case, skip the decomposition and are mapped through a lookup
+ * table; if the name is already canonical, it is returned without copying.
+ *
+ * The result depends only on the lower-cased input, which keeps results cacheable per lower-cased name.
+ */
+public final class TextNormalizer {
+
+    private static final char DROP = '\0';
+    private static final char SPACE = ' ';
+    private static final char[] ASCII = new char[0x80];
+    private static final char[] CONFUSABLE_FROM;
+    private static final char[] CONFUSABLE_TO;
+
+    static {
+        for (char c = 0; c < ASCII.length; c++) {
+            if (c >= 'a' && c <= 'z' || c >= '0' && c <= '9') {
+                ASCII[c] = c;
+            } else if (c >= 'A' && c <= 'Z') {
+                ASCII[c] = (char) (c + ('a' - 'A'));
+            } else if (c < 0x20 && !Character.isWhitespace(c) || c == 0x7f) {
+                ASCII[c] = DROP;
+            } else {
+                ASCII[c] = SPACE;
+            }
+        }
+        String leet = "0o1i3e4a5s7t8b9g@a$s!i|l";
+        for (int i = 0; i < leet.length(); i += 2) {
+            ASCII[leet.charAt(i)] = leet.charAt(i + 1);
+        }
+
+        // Lower-case homoglyphs of Latin letters, after case folding, each followed by its Latin letter
+        String confusables = ""
+                + "\u0430a\u0432b\u0435e\u0455s\u0456i\u0458j\u043ak\u043cm\u043dh\u043eo\u0440p\u0441c\u0442t\u0443y\u0445x\u0501d\u051bq\u051dw\u04bbh\u04cfl" // Cyrillic
+                + "\u03b1a\u03b2b\u03b3y\u03b5e\u03b7n\u03b9i\u03bak\u03bdv\u03bfo\u03c1p\u03c4t\u03c5u\u03c7x\u03c9w" // Greek
+                + "\u0131i\u0251a\u0261g\u0269i\u0280r\u028fy"; // Latin extensions
+        char[][] pairs = new char[confusables.length() / 2][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new char[] {confusables.charAt(2 * i), confusables.charAt(2 * i + 1)};
+        }
+        Arrays.sort(pairs, (a, b) -> Character.compare(a[0], b[0]));
+        CONFUSABLE_FROM = new char[pairs.length];
+        CONFUSABLE_TO = new char[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            CONFUSABLE_FROM[i] = pairs[i][0];
+            CONFUSABLE_TO[i] = pairs[i][1];
+        }
+    }
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Return the canonical form of {@code text}; may be {@code text} itself if it is already canonical.
+     */
+    public static CharSequence normalize(CharSequence text) {
+        if (isCanonical(text)) {
+            return text;
+        }
+        CharSequence source = isAscii(text) ? text : Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder words = new StringBuilder(source.length());
+        for (int i = 0, length = source.length(); i < length; ) {
+            int codePoint = Character.codePointAt(source, i);
+            i += Character.charCount(codePoint);
+            int mapped = map(codePoint);
+            if (mapped == SPACE) {
+                if (words.length() > 0 && words.charAt(words.length() - 1) != SPACE) {
+                    words.append(SPACE);
+                }
+            } else if (mapped != DROP) {
+                words.appendCodePoint(mapped);
+            }
+        }
+        if (words.length() > 0 && words.charAt(words.length() - 1) == SPACE) {
+            words.setLength(words.length() - 1);
+        }
+        return joinSingleCharacters(words);
+    }
+
+    /**
+     * Remove the space between two words of a single character each, so that {@code "s p a m"} becomes
+     * {@code "spam"}. Words must be separated by single spaces, without leading or trailing space.
+     */
+    private static String joinSingleCharacters(CharSequence words) {
+        StringBuilder joined = new StringBuilder(words.length());
+        for (int i = 0, length = words.length(); i < length; i++) {
+            char c = words.charAt(i);
+            if (c != SPACE || !joinsSingleCharacters(words, i)) {
+                joined.append(c);
+            }
+        }
+        return joined.toString();
+    }
+
+    private static boolean joinsSingleCharacters(CharSequence words, int space) {
+        return (space == 1 || words.charAt(space - 2) == SPACE)
+                && (space + 2 == words.length() || words.charAt(space + 2) == SPACE);
+    }
+
+    /**
+     * Whether {@link #normalize} would return {@code text} unchanged: lower-case ASCII letters and digits,
+     * in words separated by single spaces, no two adjacent words of a single character.
+     */
+    private static boolean isCanonical(CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == SPACE) {
+                if (i == 0 || i == length - 1 || text.charAt(i - 1) == SPACE || joinsSingleCharacters(text, i)) {
+                    return false;
+                }
+            } else if (c >= 0x80 || ASCII[c] != c) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAscii(CharSequence text) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Canonical form of one code point: a letter or digit, {@link #SPACE} for a separator, or {@link #DROP}.
+     */
+    private static int map(int codePoint) {
+        if (codePoint < 0x80) {
+            return ASCII[codePoint];
+        }
+        switch (Character.getType(codePoint)) {
+            case Character.CONTROL:
+            case Character.FORMAT:
+            case Character.NON_SPACING_MARK:
+            case Character.ENCLOSING_MARK:
+            case Character.COMBINING_SPACING_MARK:
+                return DROP;
+            case Character.SPACE_SEPARATOR:
+            case Character.LINE_SEPARATOR:
+            case Character.PARAGRAPH_SEPARATOR:
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+                return SPACE;
+            default:
+                return confusable(Character.toLowerCase(Character.toUpperCase(codePoint)));
+        }
+    }
+
+    private static int confusable(int codePoint) {
+        if (codePoint > Character.MAX_VALUE) {
+            return codePoint;
+        }
+        int index = Arrays.binarySearch(CONFUSABLE_FROM, (char) codePoint);
+        return index < 0 ? codePoint : CONFUSABLE_TO[index];
+    }
+}
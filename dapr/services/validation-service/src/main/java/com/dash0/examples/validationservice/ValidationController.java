@@ -3,14 +3,20 @@ package com.dash0.examples.validationservice;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * REST Controller for validation service endpoints
@@ -24,6 +30,21 @@ public class ValidationController {
     @Autowired
     private ValidationService validationService;
     
+    @Autowired
+    private HistoryStore historyStore;
+    
+    // Longest time range a single history query may cover
+    @Value("${app.validation.history.max-query-range:7d}")
+    private Duration historyMaxQueryRange;
+    
+    // Log trace headers for about 1 in N requests; 0 disables sampling
+    @Value("${app.validation.trace-headers.sample-every:0}")
+    private int traceHeadersSampleEvery;
+    
+    // Requests carrying this header always get their trace headers logged
+    @Value("${app.validation.trace-headers.debug-header:x-debug-trace}")
+    private String traceHeadersDebugHeader;
+    
     /**
      * Validate a todo name
      */
@@ -33,9 +54,11 @@ public class ValidationController {
             HttpServletRequest httpRequest) {
         
         try {
-            logger.info("Received validation request for: {}", request.getName());
+            logger.debug("Received validation request for: {}", request.getName());
             
-            logTraceHeaders(httpRequest);
+            if (shouldLogTraceHeaders(httpRequest)) {
+                logTraceHeaders(httpRequest);
+            }
             
             ValidationResponse response = validationService.validateTodoName(request.getName());
             return ResponseEntity.ok(response);
@@ -48,19 +71,62 @@ public class ValidationController {
     }
     
     /**
-     * Get current validation rules
+     * Validate many todo names in one request; results are returned in request order
+     */
+    @PostMapping("/validate/batch")
+    public ResponseEntity<BatchValidationResponse> validateTodos(
+            @Valid @RequestBody BatchValidationRequest request,
+            HttpServletRequest httpRequest) {
+        
+        logger.debug("Received batch validation request for {} names", request.getNames().size());
+        
+        if (shouldLogTraceHeaders(httpRequest)) {
+            logTraceHeaders(httpRequest);
+        }
+        
+        BatchValidationResponse response = validationService.validateTodoNames(request.getNames());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Get current validation rules; the active rules version is also returned as the ETag
      */
     @GetMapping("/rules")
     public ResponseEntity<ValidationRules> getRules() {
         try {
             ValidationRules rules = validationService.getCurrentRules();
-            return ResponseEntity.ok(rules);
+            return ResponseEntity.ok().eTag(rules.getVersion()).body(rules);
         } catch (Exception e) {
             logger.error("Error fetching rules", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * Get validation history in the time range [from, to), in UTC and newest first; defaults to the last
+     * hour. Pass the returned nextPageToken as pageToken to get the next page.
+     */
+    @GetMapping("/history")
+    public ResponseEntity<HistoryPage> getHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String pageToken) {
+        
+        LocalDateTime end = to != null ? to : LocalDateTime.now(ZoneOffset.UTC);
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (Duration.between(start, end).compareTo(historyMaxQueryRange) > 0) {
+            throw new IllegalArgumentException("Time range must not exceed " + historyMaxQueryRange);
+        }
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("limit must be between 1 and 1000");
+        }
+        HistoryPage.Cursor cursor = pageToken == null || pageToken.isEmpty() ? null : HistoryPage.Cursor.decode(pageToken);
+        return ResponseEntity.ok(historyStore.find(start, end, limit, cursor));
+    }
     
     /**
      * Health check endpoint
@@ -91,6 +157,17 @@ public class ValidationController {
         return ResponseEntity.badRequest().body(response);
     }
     
+    /**
+     * Handle invalid query parameters
+     */
+    @ExceptionHandler({IllegalArgumentException.class, MethodArgumentTypeMismatchException.class})
+    public ResponseEntity<ValidationResponse> handleBadRequest(Exception ex) {
+        String message = ex instanceof MethodArgumentTypeMismatchException mismatch
+                ? "Invalid value for " + mismatch.getName()
+                : ex.getMessage();
+        return ResponseEntity.badRequest().body(new ValidationResponse(false, message));
+    }
+    
     /**
      * Handle general exceptions
      */
@@ -101,6 +178,16 @@ public class ValidationController {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
     }
     
+    /**
+     * Trace header logging is opt-in: for a random sample of requests, or when the debug header is present
+     */
+    private boolean shouldLogTraceHeaders(HttpServletRequest request) {
+        if (traceHeadersSampleEvery > 0 && ThreadLocalRandom.current().nextInt(traceHeadersSampleEvery) == 0) {
+            return true;
+        }
+        return request.getHeader(traceHeadersDebugHeader) != null;
+    }
+    
     /**
      * Log trace headers for debugging
      */
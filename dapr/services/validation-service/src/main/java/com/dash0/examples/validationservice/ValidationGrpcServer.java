@@ -0,0 +1,77 @@
+package com.dash0.examples.validationservice;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves the gRPC validation API on its own port, next to the HTTP endpoints. Dapr forwards gRPC
+ * service invocations to this port when the sidecar runs with {@code app-protocol: grpc} and this
+ * port as the app port.
+ *
+ * Calls are handled directly on the transport threads: validation is CPU-only and never blocks, so
+ * handing each call to another thread pool would only add a thread switch.
+ */
+@Component
+@ConditionalOnProperty(name = "app.validation.grpc.enabled", havingValue = "true")
+public class ValidationGrpcServer implements SmartLifecycle {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ValidationGrpcServer.class);
+    
+    private final ValidationService validationService;
+    private final int port;
+    private volatile Server server;
+    
+    public ValidationGrpcServer(ValidationService validationService,
+                                @Value("${app.validation.grpc.port:50051}") int port) {
+        this.validationService = validationService;
+        this.port = port;
+    }
+    
+    @Override
+    public void start() {
+        try {
+            server = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                    .directExecutor()
+                    .addService(new ValidationGrpcService(validationService))
+                    .build()
+                    .start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start gRPC server on port " + port, e);
+        }
+        logger.info("gRPC validation server listening on port {}", server.getPort());
+    }
+    
+    @Override
+    public void stop() {
+        Server running = server;
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(5, TimeUnit.SECONDS)) {
+                running.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            running.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
@@ -0,0 +1,64 @@
+package com.dash0.examples.validationservice;
+
+import com.dash0.examples.validation.grpc.ValidateRequest;
+import com.dash0.examples.validation.grpc.ValidateResponse;
+import com.dash0.examples.validation.grpc.ValidationGrpc;
+import io.grpc.stub.StreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * gRPC implementation of the validation API in {@code src/main/proto/validation.proto}; validates with
+ * the same {@link ValidationService} as the HTTP endpoints
+ */
+public class ValidationGrpcService extends ValidationGrpc.ValidationImplBase {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ValidationGrpcService.class);
+    
+    private final ValidationService validationService;
+    
+    public ValidationGrpcService(ValidationService validationService) {
+        this.validationService = validationService;
+    }
+    
+    @Override
+    public void validate(ValidateRequest request, StreamObserver<ValidateResponse> responseObserver) {
+        responseObserver.onNext(validate(request));
+        responseObserver.onCompleted();
+    }
+    
+    /**
+     * Each name is validated as it arrives, against the rules active at that moment; every response
+     * carries the rules version it was validated with.
+     */
+    @Override
+    public StreamObserver<ValidateRequest> validateStream(StreamObserver<ValidateResponse> responseObserver) {
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(ValidateRequest request) {
+                responseObserver.onNext(validate(request));
+            }
+            
+            @Override
+            public void onError(Throwable error) {
+                logger.debug("Validation stream cancelled by client: {}", error.getMessage());
+            }
+            
+            @Override
+            public void onCompleted() {
+                responseObserver.onCompleted();
+            }
+        };
+    }
+    
+    private ValidateResponse validate(ValidateRequest request) {
+        ValidationResponse response = validationService.validateTodoName(request.getName());
+        ValidateResponse.Builder builder = ValidateResponse.newBuilder()
+                .setValid(response.isValid())
+                .setMessage(response.getMessage());
+        if (response.getRulesVersion() != null) {
+            builder.setRulesVersion(response.getRulesVersion());
+        }
+        return builder.build();
+    }
+}
@@ -6,6 +6,9 @@ import java.time.LocalDateTime;
 
 /**
  * Model representing a validation history record
+ *
+ * Records the rules version rather than the rules themselves, to keep each record small; the
+ * timestamp is in UTC.
  */
 public class ValidationHistory {
     
@@ -21,18 +24,18 @@ public class ValidationHistory {
     @JsonProperty("timestamp")
     private LocalDateTime timestamp;
     
-    @JsonProperty("rules")
-    private ValidationRules rules;
+    @JsonProperty("rulesVersion")
+    private String rulesVersion;
     
     public ValidationHistory() {}
     
     public ValidationHistory(String name, boolean result, String reason, 
-                           LocalDateTime timestamp, ValidationRules rules) {
+                           LocalDateTime timestamp, String rulesVersion) {
         this.name = name;
         this.result = result;
         this.reason = reason;
         this.timestamp = timestamp;
-        this.rules = rules;
+        this.rulesVersion = rulesVersion;
     }
     
     public String getName() {
@@ -67,12 +70,12 @@ public class ValidationHistory {
         this.timestamp = timestamp;
     }
     
-    public ValidationRules getRules() {
-        return rules;
+    public String getRulesVersion() {
+        return rulesVersion;
     }
     
-    public void setRules(ValidationRules rules) {
-        this.rules = rules;
+    public void setRulesVersion(String rulesVersion) {
+        this.rulesVersion = rulesVersion;
     }
     
     @Override
@@ -82,7 +85,7 @@ public class ValidationHistory {
                 ", result=" + result +
                 ", reason='" + reason + '\'' +
                 ", timestamp=" + timestamp +
-                ", rules=" + rules +
+                ", rulesVersion='" + rulesVersion + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,185 @@
+package com.dash0.examples.validationservice;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records validation decisions without slowing down validation.
+ *
+ * Request threads only add an entry to a bounded ring buffer, which never blocks: when the buffer is
+ * full the entry is dropped and counted. A single background writer drains the buffer and appends the
+ * entries to the {@link HistoryStore} in batches of up to {@code batch-size}, waiting at most
+ * {@code flush-interval} for a batch to fill. Failed batches are retried with backoff and dropped once
+ * the retries are used up. On shutdown, the buffer is flushed for up to {@code shutdown-timeout}.
+ */
+@Component
+public class ValidationHistoryRecorder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ValidationHistoryRecorder.class);
+    private static final long FILL_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    
+    private final HistoryStore historyStore;
+    private final boolean enabled;
+    private final BlockingQueue<ValidationHistory> buffer;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final int maxRetries;
+    private final Duration shutdownTimeout;
+    private final Counter recorded;
+    private final Counter droppedOverflow;
+    private final Counter droppedFailed;
+    private final Timer writeLatency;
+    private volatile boolean running;
+    private Thread writer;
+    
+    public ValidationHistoryRecorder(
+            HistoryStore historyStore,
+            MeterRegistry meterRegistry,
+            @Value("${app.validation.history.enabled:true}") boolean enabled,
+            @Value("${app.validation.history.buffer-capacity:10000}") int bufferCapacity,
+            @Value("${app.validation.history.batch-size:500}") int batchSize,
+            @Value("${app.validation.history.flush-interval:1s}") Duration flushInterval,
+            @Value("${app.validation.history.max-retries:3}") int maxRetries,
+            @Value("${app.validation.history.shutdown-timeout:5s}") Duration shutdownTimeout) {
+        if (bufferCapacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("History buffer capacity and batch size must be at least 1");
+        }
+        this.historyStore = historyStore;
+        this.enabled = enabled;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.maxRetries = maxRetries;
+        this.shutdownTimeout = shutdownTimeout;
+        
+        meterRegistry.gauge("validation.history.queue.depth", buffer, BlockingQueue::size);
+        this.recorded = Counter.builder("validation.history.recorded")
+            .description("History entries written to the history store")
+            .register(meterRegistry);
+        this.droppedOverflow = Counter.builder("validation.history.dropped")
+            .description("History entries dropped because the buffer was full")
+            .tag("reason", "overflow")
+            .register(meterRegistry);
+        this.droppedFailed = Counter.builder("validation.history.dropped")
+            .description("History entries dropped because writing them kept failing")
+            .tag("reason", "failed")
+            .register(meterRegistry);
+        this.writeLatency = Timer.builder("validation.history.write.latency")
+            .description("Time to append one batch to the history store")
+            .register(meterRegistry);
+    }
+    
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            logger.info("Validation history recording is disabled");
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "validation-history-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Recording validation history to {}", historyStore.getClass().getSimpleName());
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(shutdownTimeout.toMillis());
+        if (writer.isAlive()) {
+            logger.warn("History writer did not finish within {}, {} entries not written", shutdownTimeout, buffer.size());
+            writer.interrupt();
+        }
+    }
+    
+    /**
+     * Record one validation decision; never blocks
+     */
+    public void record(String name, ValidationResponse response, String rulesVersion) {
+        if (!enabled) {
+            return;
+        }
+        ValidationHistory entry = new ValidationHistory(name, response.isValid(), response.getMessage(),
+                LocalDateTime.now(ZoneOffset.UTC), rulesVersion);
+        if (!buffer.offer(entry)) {
+            droppedOverflow.increment();
+        }
+    }
+    
+    private void drain() {
+        List<ValidationHistory> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                ValidationHistory first = buffer.poll(flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch, System.nanoTime() + flushInterval.toNanos());
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("History writer failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    /**
+     * Add buffered entries until the batch is full or the flush deadline passes; while shutting down,
+     * take only what is already buffered. Sleeps between checks rather than waiting on the buffer, so
+     * request threads never have to wake the writer for each entry they add.
+     */
+    private void fillBatch(List<ValidationHistory> batch, long deadline) throws InterruptedException {
+        while (true) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() == batchSize || remaining <= 0 || !running) {
+                return;
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, FILL_CHECK_NANOS));
+        }
+    }
+    
+    private void write(List<ValidationHistory> batch) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                historyStore.append(batch);
+                writeLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                recorded.increment(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= maxRetries || !running) {
+                    logger.error("Dropping {} history entries after {} attempts: {}", batch.size(), attempt + 1, e.getMessage());
+                    droppedFailed.increment(batch.size());
+                    return;
+                }
+                logger.warn("Writing {} history entries failed, retry #{}: {}", batch.size(), attempt + 1, e.getMessage());
+                Thread.sleep(100L << attempt);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.dash0.examples.validationservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The responses for every possible outcome of validating against one rules version, created when the
+ * rules are applied. Forbidden-word responses are created on first use and then kept, so large word
+ * lists cost memory only for the words that actually occur.
+ *
+ * Each outcome has two shared responses: one carrying the rules version, returned by single
+ * validations, and one without it for batch results, whose rules version is set on the batch.
+ */
+final class ValidationOutcomes {
+    
+    private final ObjectMapper objectMapper;
+    private final String rulesVersion;
+    private final ForbiddenWordMatcher forbiddenWords;
+    private final AtomicReferenceArray<Outcome> forbiddenWordOutcomes;
+    private final Outcome required;
+    private final Outcome tooShort;
+    private final Outcome tooLong;
+    private final Outcome valid;
+    
+    ValidationOutcomes(ValidationRules rules, ForbiddenWordMatcher forbiddenWords, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.rulesVersion = rules.getVersion();
+        this.forbiddenWords = forbiddenWords;
+        this.forbiddenWordOutcomes = new AtomicReferenceArray<>(forbiddenWords.wordCount());
+        this.required = outcome(false, "Todo name is required");
+        this.tooShort = outcome(false, String.format("Todo name must be at least %d characters long", rules.getMinLength()));
+        this.tooLong = outcome(false, String.format("Todo name must be less than %d characters long", rules.getMaxLength()));
+        this.valid = outcome(true, "Todo name is valid");
+    }
+    
+    Outcome required() {
+        return required;
+    }
+    
+    Outcome tooShort() {
+        return tooShort;
+    }
+    
+    Outcome tooLong() {
+        return tooLong;
+    }
+    
+    Outcome valid() {
+        return valid;
+    }
+    
+    /**
+     * Outcome for the forbidden word at {@code index}; racing first uses may build it twice, but all
+     * callers then share the one that was stored first
+     */
+    Outcome forbiddenWord(int index) {
+        Outcome outcome = forbiddenWordOutcomes.get(index);
+        if (outcome == null) {
+            outcome = outcome(false, String.format("Todo name contains forbidden word: \"%s\"", forbiddenWords.word(index)));
+            if (!forbiddenWordOutcomes.compareAndSet(index, null, outcome)) {
+                outcome = forbiddenWordOutcomes.get(index);
+            }
+        }
+        return outcome;
+    }
+    
+    private Outcome outcome(boolean valid, String message) {
+        return new Outcome(
+                new PrecomputedValidationResponse(valid, message, rulesVersion, objectMapper),
+                new PrecomputedValidationResponse(valid, message, null, objectMapper));
+    }
+    
+    /**
+     * The shared responses for one outcome, with and without the rules version
+     */
+    record Outcome(PrecomputedValidationResponse response, PrecomputedValidationResponse batchResponse) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.dash0.examples.validationservice;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -13,6 +14,10 @@ public class ValidationResponse {
     @JsonProperty("message")
     private String message;
     
+    @JsonProperty("rulesVersion")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String rulesVersion;
+    
     public ValidationResponse() {}
     
     public ValidationResponse(boolean valid, String message) {
@@ -36,11 +41,20 @@ public class ValidationResponse {
         this.message = message;
     }
     
+    public String getRulesVersion() {
+        return rulesVersion;
+    }
+    
+    public void setRulesVersion(String rulesVersion) {
+        this.rulesVersion = rulesVersion;
+    }
+    
     @Override
     public String toString() {
         return "ValidationResponse{" +
                 "valid=" + valid +
                 ", message='" + message + '\'' +
+                ", rulesVersion='" + rulesVersion + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -2,7 +2,16 @@ package com.dash0.examples.validationservice;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Model representing validation rules configuration
@@ -24,6 +33,12 @@ public class ValidationRules {
     @JsonProperty("externalApiCheck")
     private boolean externalApiCheck;
     
+    @JsonProperty("normalizeText")
+    private boolean normalizeText = true;
+    
+    @JsonProperty("version")
+    private String version;
+    
     public ValidationRules() {}
     
     public ValidationRules(int minLength, int maxLength, List<String> forbiddenWords, 
@@ -67,6 +82,60 @@ public class ValidationRules {
         this.profanityCheck = profanityCheck;
     }
     
+    /**
+     * Whether names and forbidden words are normalized before matching, see {@link TextNormalizer}.
+     * On unless the rules turn it off.
+     */
+    public boolean isNormalizeText() {
+        return normalizeText;
+    }
+    
+    public void setNormalizeText(boolean normalizeText) {
+        this.normalizeText = normalizeText;
+    }
+    
+    /**
+     * Identifies this set of rules; changes whenever a rule changes, so clients can cache results per version.
+     */
+    public String getVersion() {
+        return version;
+    }
+    
+    public void setVersion(String version) {
+        this.version = version;
+    }
+    
+    /**
+     * Derive a version from the rule values: the first 16 hex digits of the SHA-256 digest of their
+     * canonical encoding. Clients cache results per version, so different rules must not share one.
+     */
+    public String computeVersion() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(minLength);
+            out.writeInt(maxLength);
+            List<String> words = forbiddenWords == null ? List.of() : forbiddenWords;
+            out.writeInt(words.size());
+            for (String word : words) {
+                // Length-prefixed, so word boundaries can't shift between lists
+                byte[] encoded = word.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(encoded.length);
+                out.write(encoded);
+            }
+            out.writeBoolean(profanityCheck);
+            out.writeBoolean(externalApiCheck);
+            out.writeBoolean(normalizeText);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray());
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
     public boolean isExternalApiCheck() {
         return externalApiCheck;
     }
@@ -75,6 +144,30 @@ public class ValidationRules {
         this.externalApiCheck = externalApiCheck;
     }
     
+    /**
+     * Rules are equal if all rule values are; the version is derived from them and not compared.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ValidationRules other)) {
+            return false;
+        }
+        return minLength == other.minLength
+                && maxLength == other.maxLength
+                && profanityCheck == other.profanityCheck
+                && externalApiCheck == other.externalApiCheck
+                && normalizeText == other.normalizeText
+                && Objects.equals(forbiddenWords, other.forbiddenWords);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(minLength, maxLength, forbiddenWords, profanityCheck, externalApiCheck, normalizeText);
+    }
+    
     @Override
     public String toString() {
         return "ValidationRules{" +
@@ -83,6 +176,8 @@ public class ValidationRules {
                 ", forbiddenWords=" + forbiddenWords +
                 ", profanityCheck=" + profanityCheck +
                 ", externalApiCheck=" + externalApiCheck +
+                ", normalizeText=" + normalizeText +
+                ", version='" + version + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -1,53 +1,103 @@
 package com.dash0.examples.validationservice;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Service class for validation logic and state management
+ *
+ * Rules are held as an immutable snapshot, compiled once and swapped atomically by {@link #applyRules};
+ * every validation reads the snapshot once, so a reload never pauses or mixes into in-flight requests.
+ * Every decision is handed to the {@link ValidationHistoryRecorder}, which persists it asynchronously.
+ * Responses are precomputed per rules version and outcome (see {@link ValidationOutcomes}), so a
+ * validation creates no response objects or messages of its own.
  */
 @Service
 public class ValidationService {
     
     private static final Logger logger = LoggerFactory.getLogger(ValidationService.class);
     
-    private ValidationRules validationRules;
+    private final AtomicReference<CompiledRules> compiledRules = new AtomicReference<>();
+    private final ValidationHistoryRecorder historyRecorder;
+    private final ObjectMapper objectMapper;
+    
+    public ValidationService(ValidationHistoryRecorder historyRecorder, ObjectMapper objectMapper) {
+        this.historyRecorder = historyRecorder;
+        this.objectMapper = objectMapper;
+    }
     
     @PostConstruct
     public void initialize() {
-        // Initialize validation rules - simple in-memory rules
-        validationRules = new ValidationRules(
+        // Start with simple in-memory rules; a configured rules source may replace them later
+        applyRules(new ValidationRules(
             3, 
             100, 
             Arrays.asList("spam", "test123", "delete", "bad", "terrible", "awful", "hate", "stupid", "dumb"),
             true,
             false
-        );
+        ));
         
-        logger.info("Validation service initialized with {} forbidden words", validationRules.getForbiddenWords().size());
+        logger.info("Validation service initialized with {} forbidden words", getCurrentRules().getForbiddenWords().size());
     }
     
+    /**
+     * Compile the given rules and make them the active ones. The rules are copied, so later changes to
+     * the argument have no effect. Returns false if they are identical to the active rules.
+     */
+    public boolean applyRules(ValidationRules rules) {
+        if (rules.getMinLength() < 0 || rules.getMaxLength() < rules.getMinLength()) {
+            throw new IllegalArgumentException(String.format(
+                "Invalid length limits: minLength=%d, maxLength=%d", rules.getMinLength(), rules.getMaxLength()));
+        }
+        List<String> forbiddenWords = rules.getForbiddenWords() == null ? List.of() : rules.getForbiddenWords().stream()
+                .filter(Objects::nonNull)
+                .toList();
+        ValidationRules snapshot = new ValidationRules(rules.getMinLength(), rules.getMaxLength(), forbiddenWords,
+                rules.isProfanityCheck(), rules.isExternalApiCheck());
+        snapshot.setNormalizeText(rules.isNormalizeText());
+        snapshot.setVersion(snapshot.computeVersion());
+        
+        // Compared by value: the version is a digest and only used to tag results
+        CompiledRules current = compiledRules.get();
+        if (current != null && snapshot.equals(current.rules())) {
+            return false;
+        }
+        
+        // Compile before swapping, so validations keep using the previous rules until the new ones are ready
+        ForbiddenWordMatcher matcher = ForbiddenWordMatcher.compile(forbiddenWords, snapshot.isNormalizeText());
+        CompiledRules compiled = new CompiledRules(snapshot, matcher, new ValidationOutcomes(snapshot, matcher, objectMapper));
+        CompiledRules previous = compiledRules.getAndSet(compiled);
+        logger.info("Activated validation rules version {} with {} forbidden words (previous version {})",
+                snapshot.getVersion(), forbiddenWords.size(), previous == null ? "none" : previous.rules().getVersion());
+        return true;
+    }
     
     
     /**
      * Validate a todo name based on current rules
      */
     public ValidationResponse validateTodoName(String name) {
+        CompiledRules rules = compiledRules.get();
         if (name == null || name.trim().isEmpty()) {
-            return new ValidationResponse(false, "Todo name is required");
+            ValidationResponse result = rules.outcomes().required().response();
+            historyRecorder.record(name, result, result.getRulesVersion());
+            return result;
         }
         
         try {
-            logger.info("Validating todo name: \"{}\"", name);
+            logger.debug("Validating todo name: \"{}\"", name);
             
             // Perform validation using in-memory rules
-            ValidationResponse result = performValidation(name, validationRules);
+            ValidationResponse result = performValidation(name, rules).response();
+            historyRecorder.record(name, result, result.getRulesVersion());
             
-            logger.info("Validation result: {} - {}", result.isValid(), result.getMessage());
+            logger.debug("Validation result: {} - {}", result.isValid(), result.getMessage());
             return result;
             
         } catch (Exception e) {
@@ -57,41 +107,62 @@ public class ValidationService {
     }
     
     /**
-     * Get current validation rules
+     * Validate many todo names against one snapshot of the rules
+     */
+    public BatchValidationResponse validateTodoNames(List<String> names) {
+        CompiledRules rules = compiledRules.get();
+        
+        List<ValidationResponse> results = new ArrayList<>(names.size());
+        String rulesVersion = rules.rules().getVersion();
+        for (String name : names) {
+            ValidationResponse result = name == null || name.trim().isEmpty()
+                    ? rules.outcomes().required().batchResponse()
+                    : performValidation(name, rules).batchResponse();
+            historyRecorder.record(name, result, rulesVersion);
+            results.add(result);
+        }
+        
+        logger.debug("Validated batch of {} todo names", names.size());
+        return new BatchValidationResponse(results, rulesVersion);
+    }
+    
+    /**
+     * Get current validation rules; the returned snapshot must not be modified
      */
     public ValidationRules getCurrentRules() {
-        return validationRules;
+        return compiledRules.get().rules();
     }
     
     /**
      * Perform the actual validation logic
      */
-    private ValidationResponse performValidation(String name, ValidationRules rules) {
+    private ValidationOutcomes.Outcome performValidation(String name, CompiledRules compiled) {
+        ValidationRules rules = compiled.rules();
+        
         // Check minimum length
         if (name.length() < rules.getMinLength()) {
-            return new ValidationResponse(false, 
-                String.format("Todo name must be at least %d characters long", rules.getMinLength()));
+            return compiled.outcomes().tooShort();
         }
         
         // Check maximum length
         if (name.length() > rules.getMaxLength()) {
-            return new ValidationResponse(false, 
-                String.format("Todo name must be less than %d characters long", rules.getMaxLength()));
+            return compiled.outcomes().tooLong();
         }
         
         // Check forbidden words
-        String lowerName = name.toLowerCase();
-        Optional<String> foundForbiddenWord = rules.getForbiddenWords().stream()
-                .filter(word -> lowerName.contains(word.toLowerCase()))
-                .findFirst();
-                
-        if (foundForbiddenWord.isPresent()) {
-            return new ValidationResponse(false, 
-                String.format("Todo name contains forbidden word: \"%s\"", foundForbiddenWord.get()));
+        int forbiddenWord = compiled.forbiddenWords().indexOfFirst(name);
+        if (forbiddenWord >= 0) {
+            return compiled.outcomes().forbiddenWord(forbiddenWord);
         }
         
         // External API validation is disabled - keeping validation simple
         
-        return new ValidationResponse(true, "Todo name is valid");
+        return compiled.outcomes().valid();
+    }
+    
+    /**
+     * Rules together with the forbidden-word matcher and responses built from them, swapped as one unit
+     */
+    private record CompiledRules(ValidationRules rules, ForbiddenWordMatcher forbiddenWords, ValidationOutcomes outcomes) {
     }
 }
\ No newline at end of file
@@ -1,8 +1,13 @@
 package com.dash0.examples.validationservice;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
@@ -26,4 +31,24 @@ public class ValidationServiceApplication {
     public RestTemplate restTemplate() {
         return new RestTemplate();
     }
+
+    /**
+     * Log which kind of threads serve requests, since spring.threads.virtual.enabled is silently
+     * ignored on runtimes older than Java 21
+     */
+    @Bean
+    public ApplicationRunner threadingModeLogger(Environment environment) {
+        Logger logger = LoggerFactory.getLogger(ValidationServiceApplication.class);
+        return args -> {
+            boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+            if (Threading.VIRTUAL.isActive(environment)) {
+                logger.info("Serving requests on virtual threads (Java {})", Runtime.version().feature());
+            } else if (requested) {
+                logger.warn("Virtual threads requested but not available on Java {}, serving requests on platform threads",
+                    Runtime.version().feature());
+            } else {
+                logger.info("Serving requests on platform threads (Java {})", Runtime.version().feature());
+            }
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.dash0.examples.validationservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.dapr.client.DaprClient;
+import io.dapr.client.DaprClientBuilder;
+import io.dapr.serializer.DefaultObjectSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class DaprClientConfig {
+
+    /**
+     * Client for the Dapr sidecar; only needed when rules are loaded from a Dapr configuration store
+     * or validation history is kept in a Dapr state store.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnExpression("'${app.validation.rules.source:static}' == 'configuration'"
+            + " or '${app.validation.history.store:memory}' == 'state'")
+    public DaprClient daprClient(ObjectMapper objectMapper) {
+        // Dapr's own mapper cannot write LocalDateTime; reuse Spring's, minus the pretty printing
+        ObjectMapper stateMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+        DefaultObjectSerializer serializer = new DefaultObjectSerializer() {
+            @Override
+            protected ObjectMapper getObjectMapper() {
+                return stateMapper;
+            }
+        };
+        return new DaprClientBuilder()
+            .withObjectSerializer(serializer)
+            .withStateSerializer(serializer)
+            .build();
+    }
+}
@@ -0,0 +1,21 @@
+package com.dash0.examples.validationservice.config;
+
+import com.dash0.examples.validationservice.PrecomputedResponseHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    /**
+     * Write precomputed validation responses from their cached JSON; everything else still goes
+     * through Jackson.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new PrecomputedResponseHttpMessageConverter());
+    }
+}
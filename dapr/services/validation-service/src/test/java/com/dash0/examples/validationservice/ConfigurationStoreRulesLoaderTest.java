@@ -0,0 +1,73 @@
+package com.dash0.examples.validationservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.dapr.client.DaprClient;
+import io.dapr.client.domain.ConfigurationItem;
+import io.dapr.client.domain.SubscribeConfigurationResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class ConfigurationStoreRulesLoaderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ValidationService validationService = new ValidationService(null, objectMapper);
+    private final AtomicInteger subscriptions = new AtomicInteger();
+    private ConfigurationStoreRulesLoader loader;
+
+    @AfterEach
+    void tearDown() {
+        loader.stop();
+    }
+
+    @Test
+    void resubscribesWhenTheSubscriptionEnds() {
+        validationService.initialize();
+        loader = new ConfigurationStoreRulesLoader(daprClient(), validationService, objectMapper,
+            "validation-configstore", "validation-rules", "");
+
+        loader.start();
+
+        // The first stream ends right after the current value was read; the rules of the second one apply
+        await().atMost(Duration.ofSeconds(10))
+            .untilAsserted(() -> assertThat(validationService.getCurrentRules().getForbiddenWords()).containsExactly("second"));
+        assertThat(subscriptions).hasValue(2);
+    }
+
+    private DaprClient daprClient() {
+        return (DaprClient) Proxy.newProxyInstance(
+            DaprClient.class.getClassLoader(),
+            new Class<?>[] {DaprClient.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "subscribeConfiguration" -> subscribe();
+                case "getConfiguration" -> Mono.just(rulesItem(subscriptions.get() == 1 ? "first" : "second"));
+                case "unsubscribeConfiguration" -> Mono.empty();
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+    }
+
+    private Flux<SubscribeConfigurationResponse> subscribe() {
+        return Flux.defer(() -> {
+            int subscription = subscriptions.incrementAndGet();
+            Flux<SubscribeConfigurationResponse> responses =
+                Flux.just(new SubscribeConfigurationResponse("subscription-" + subscription, Map.of()));
+            // Only the second subscription stays open
+            return subscription == 1 ? responses : responses.concatWith(Flux.never());
+        });
+    }
+
+    private ConfigurationItem rulesItem(String forbiddenWord) throws Exception {
+        ValidationRules rules = new ValidationRules(3, 100, List.of(forbiddenWord), true, false);
+        return new ConfigurationItem("validation-rules", objectMapper.writeValueAsString(rules), "1");
+    }
+}
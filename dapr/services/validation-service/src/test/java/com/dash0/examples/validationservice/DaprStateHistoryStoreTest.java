@@ -0,0 +1,131 @@
+package com.dash0.examples.validationservice;
+
+import io.dapr.client.DaprClient;
+import io.dapr.client.domain.State;
+import io.dapr.client.domain.TransactionalStateOperation;
+import io.dapr.exceptions.DaprException;
+import io.grpc.Status;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DaprStateHistoryStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 10, 30, 15);
+
+    private final FakeStateStore stateStore = new FakeStateStore();
+    private final DaprStateHistoryStore historyStore = newHistoryStore();
+
+    @Test
+    void retriesAppendsThatConflictOnTheMinuteIndex() {
+        DaprStateHistoryStore otherReplica = newHistoryStore();
+        // Another replica appends to the same minute between this replica's read and its transaction
+        stateStore.beforeNextTransaction = () -> otherReplica.append(List.of(entry("other", NOW)));
+
+        historyStore.append(List.of(entry("mine", NOW.plusSeconds(1))));
+
+        assertThat(stateStore.transactions).isEqualTo(3);
+        assertThat(historyStore.find(NOW.minusMinutes(1), NOW.plusMinutes(1), 10, null).getEntries())
+            .extracting(ValidationHistory::getName)
+            .containsExactly("mine", "other");
+    }
+
+    @Test
+    void doesNotRetryOtherTransactionFailures() {
+        stateStore.failure = Status.INTERNAL.withDescription("error while executing state transaction: connection refused");
+
+        assertThatThrownBy(() -> historyStore.append(List.of(entry("lost", NOW))))
+            .isInstanceOf(DaprException.class);
+        assertThat(stateStore.transactions).isEqualTo(1);
+    }
+
+    private DaprStateHistoryStore newHistoryStore() {
+        return new DaprStateHistoryStore(stateStore.client(), "validation-statestore", Duration.ofDays(7));
+    }
+
+    private static ValidationHistory entry(String name, LocalDateTime timestamp) {
+        return new ValidationHistory(name, true, null, timestamp, "v1");
+    }
+
+    /**
+     * State store that checks ETags on transactions and fails a mismatch with the sidecar's gRPC error.
+     */
+    private static final class FakeStateStore {
+
+        private final Map<String, State<?>> states = new HashMap<>();
+        private int nextEtag = 1;
+        int transactions;
+        Runnable beforeNextTransaction;
+        Status failure;
+
+        DaprClient client() {
+            return (DaprClient) Proxy.newProxyInstance(
+                DaprClient.class.getClassLoader(),
+                new Class<?>[] {DaprClient.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getBulkState" -> Mono.fromCallable(() -> getBulkState(castKeys(args[1])));
+                    case "executeStateTransaction" -> Mono.fromRunnable(() -> execute(castOperations(args[1])));
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        }
+
+        private synchronized List<State<Object>> getBulkState(List<String> keys) {
+            return keys.stream()
+                .map(key -> {
+                    State<?> state = states.get(key);
+                    return state == null
+                        ? new State<Object>(key, null, "")
+                        : new State<Object>(key, state.getValue(), state.getEtag());
+                })
+                .toList();
+        }
+
+        private synchronized void execute(List<TransactionalStateOperation<?>> operations) {
+            transactions++;
+            if (beforeNextTransaction != null) {
+                Runnable concurrentWrite = beforeNextTransaction;
+                beforeNextTransaction = null;
+                concurrentWrite.run();
+            }
+            if (failure != null) {
+                throw DaprException.propagate(failure.asRuntimeException());
+            }
+            for (TransactionalStateOperation<?> operation : operations) {
+                State<?> request = operation.getRequest();
+                State<?> current = states.get(request.getKey());
+                boolean mismatch = request.getEtag() != null
+                    ? current == null || !current.getEtag().equals(request.getEtag())
+                    : request.getOptions() != null && current != null;
+                if (mismatch) {
+                    throw DaprException.propagate(Status.INTERNAL
+                        .withDescription("error while executing state transaction: possible etag mismatch. "
+                            + "error from state store: ERR Error running script")
+                        .asRuntimeException());
+                }
+            }
+            for (TransactionalStateOperation<?> operation : operations) {
+                State<?> request = operation.getRequest();
+                states.put(request.getKey(), new State<>(request.getKey(), request.getValue(), Integer.toString(nextEtag++)));
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<String> castKeys(Object keys) {
+            return (List<String>) keys;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static List<TransactionalStateOperation<?>> castOperations(Object operations) {
+            return (List<TransactionalStateOperation<?>>) operations;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.dash0.examples.validationservice;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking one todo name against {@code wordCount} forbidden words.
+ *
+ * {@code stream} reproduces the original check, which lower-cased every word and called
+ * {@code String.contains} for each of them; {@code automaton} uses {@link ForbiddenWordMatcher}.
+ * Names are mostly clean, as in production, so the original check usually scans the whole list.
+ *
+ * Run with:
+ * <pre>
+ * ./mvnw test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) \
+ *     com.dash0.examples.validationservice.ForbiddenWordMatcherBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForbiddenWordMatcherBenchmark {
+
+    private static final int NAME_COUNT = 1024;
+
+    @Param({"10", "1000", "100000"})
+    private int wordCount;
+
+    private List<String> forbiddenWords;
+    private ForbiddenWordMatcher matcher;
+    private String[] names;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        forbiddenWords = new ArrayList<>(wordCount);
+        for (int i = 0; i < wordCount; i++) {
+            forbiddenWords.add(randomWord(random, 5 + random.nextInt(6)));
+        }
+        matcher = ForbiddenWordMatcher.compile(forbiddenWords);
+
+        names = new String[NAME_COUNT];
+        for (int i = 0; i < NAME_COUNT; i++) {
+            String name = "Buy " + randomWord(random, 6) + " and " + randomWord(random, 8) + " for Tuesday";
+            // One name in sixteen contains a forbidden word
+            if (i % 16 == 0) {
+                name += " " + forbiddenWords.get(random.nextInt(wordCount)).toUpperCase();
+            }
+            names[i] = name;
+        }
+
+        for (String name : names) {
+            if (!Objects.equals(matcher.findFirst(name), containsAny(name))) {
+                throw new IllegalStateException("Matchers disagree on \"" + name + "\"");
+            }
+        }
+    }
+
+    @Benchmark
+    public String stream() {
+        return containsAny(nextName());
+    }
+
+    @Benchmark
+    public String automaton() {
+        return matcher.findFirst(nextName());
+    }
+
+    private String containsAny(String name) {
+        String lowerName = name.toLowerCase();
+        Optional<String> foundForbiddenWord = forbiddenWords.stream()
+                .filter(word -> lowerName.contains(word.toLowerCase()))
+                .findFirst();
+        return foundForbiddenWord.map(String::toLowerCase).orElse(null);
+    }
+
+    private String nextName() {
+        return names[next++ & (NAME_COUNT - 1)];
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ForbiddenWordMatcherBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
@@ -0,0 +1,88 @@
+package com.dash0.examples.validationservice;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ForbiddenWordMatcherTest {
+
+    @Test
+    void findsWordsCaseInsensitively() {
+        ForbiddenWordMatcher matcher = ForbiddenWordMatcher.compile(List.of("spam", "Delete"));
+
+        assertThat(matcher.findFirst("Buy SPAM tins")).isEqualTo("spam");
+        assertThat(matcher.findFirst("please delete me")).isEqualTo("delete");
+        assertThat(matcher.findFirst("Buy milk")).isNull();
+        assertThat(matcher.findFirst("")).isNull();
+    }
+
+    @Test
+    void reportsTheWordListedFirstInTheRules() {
+        ForbiddenWordMatcher matcher = ForbiddenWordMatcher.compile(List.of("terrible", "bad", "err"));
+
+        // "err" and "bad" occur before "terrible" ends, but "terrible" is listed first
+        assertThat(matcher.findFirst("bad terrible day")).isEqualTo("terrible");
+        assertThat(matcher.indexOfFirst("errand is bad")).isEqualTo(1);
+        assertThat(matcher.indexOfFirst("errand")).isEqualTo(2);
+    }
+
+    @Test
+    void followsFailureLinksIntoOverlappingWords() {
+        ForbiddenWordMatcher matcher = ForbiddenWordMatcher.compile(List.of("hers", "she", "his"));
+
+        assertThat(matcher.findFirst("ushers")).isEqualTo("hers");
+        assertThat(matcher.findFirst("ushe")).isEqualTo("she");
+        assertThat(matcher.findFirst("thistle")).isEqualTo("his");
+        assertThat(matcher.findFirst("hehis")).isEqualTo("his");
+    }
+
+    @Test
+    void ignoresNullWordsAndEmptyRules() {
+        assertThat(ForbiddenWordMatcher.compile(Arrays.asList(null, "spam")).findFirst("spam")).isEqualTo("spam");
+        assertThat(ForbiddenWordMatcher.compile(null).findFirst("spam")).isNull();
+        assertThat(ForbiddenWordMatcher.compile(List.of()).findFirst("spam")).isNull();
+    }
+
+    @Test
+    void agreesWithWordByWordCheck() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            List<String> words = new ArrayList<>();
+            for (int i = 0, count = 1 + random.nextInt(20); i < count; i++) {
+                words.add(randomText(random, 1 + random.nextInt(4)));
+            }
+            ForbiddenWordMatcher matcher = ForbiddenWordMatcher.compile(words);
+            for (int i = 0; i < 50; i++) {
+                String name = randomText(random, random.nextInt(30));
+                assertThat(matcher.findFirst(name)).as("%s in %s", words, name).isEqualTo(wordByWord(words, name));
+            }
+        }
+    }
+
+    private static String wordByWord(List<String> words, String name) {
+        String lowerCaseName = name.toLowerCase(Locale.ROOT);
+        for (String word : words) {
+            String lowerCaseWord = word.toLowerCase(Locale.ROOT);
+            if (lowerCaseName.contains(lowerCaseWord)) {
+                return lowerCaseWord;
+            }
+        }
+        return null;
+    }
+
+    private static String randomText(Random random, int length) {
+        // A small alphabet with both cases makes overlapping and repeated matches likely
+        String alphabet = "abcAB ";
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,94 @@
+package com.dash0.examples.validationservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency that history recording adds to validating one todo name, with several request threads
+ * competing for the history buffer while the background writer drains it into an in-memory store.
+ * The benchmark offers far more entries than a real service would, so check the recorded and dropped
+ * counts printed after each trial.
+ *
+ * Run with:
+ * <pre>
+ * ./mvnw test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) \
+ *     com.dash0.examples.validationservice.HistoryRecordingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class HistoryRecordingBenchmark {
+
+    private static final List<String> NAMES = List.of(
+        "Buy groceries", "Review pull request", "Send spam to everyone", "Deploy to staging");
+
+    @Param({"false", "true"})
+    private boolean history;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ValidationHistoryRecorder recorder;
+    private ValidationService validationService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        recorder = new ValidationHistoryRecorder(new InMemoryHistoryStore(10_000), meterRegistry,
+            history, 10_000, 500, Duration.ofSeconds(1), 3, Duration.ofSeconds(5));
+        recorder.start();
+        validationService = new ValidationService(recorder, new ObjectMapper());
+        validationService.initialize();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        recorder.stop();
+        // Entries dropped on overflow cost less than recorded ones, so report how many made it
+        System.out.printf("%nrecorded=%.0f dropped=%.0f%n",
+            meterRegistry.counter("validation.history.recorded").count(),
+            meterRegistry.counter("validation.history.dropped", "reason", "overflow").count());
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public ValidationResponse validate(Cursor cursor) {
+        return validationService.validateTodoName(NAMES.get(cursor.next++ & 3));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(HistoryRecordingBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
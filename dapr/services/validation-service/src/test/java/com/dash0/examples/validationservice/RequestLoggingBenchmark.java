@@ -0,0 +1,158 @@
+package com.dash0.examples.validationservice;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU and allocation cost of logging in {@code POST /validate}, with the default INFO level.
+ *
+ * {@code legacy} reproduces the previous request path, which logged the request, every trace-like
+ * header and the validation input and result at INFO; {@code current} calls the controller as it is
+ * now. Log events are formatted and written to a discarding stream synchronously, so the numbers show
+ * the work done on the request thread without any console I/O.
+ *
+ * Run with:
+ * <pre>
+ * ./mvnw test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) \
+ *     com.dash0.examples.validationservice.RequestLoggingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestLoggingBenchmark {
+
+    private static final Logger controllerLogger = LoggerFactory.getLogger(ValidationController.class);
+    private static final Logger serviceLogger = LoggerFactory.getLogger(ValidationService.class);
+
+    private ValidationService validationService;
+    private ValidationController validationController;
+    private ValidationRequest request;
+    private MockHttpServletRequest httpRequest;
+
+    @Setup
+    public void setUp() {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(loggerContext);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        ch.qos.logback.classic.Logger root = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+
+        // History recording is off, so only the logging cost is measured
+        validationService = new ValidationService(new ValidationHistoryRecorder(new InMemoryHistoryStore(1),
+            new SimpleMeterRegistry(), false, 1, 1, Duration.ofSeconds(1), 0, Duration.ZERO), new ObjectMapper());
+        validationService.initialize();
+        validationController = new ValidationController();
+        ReflectionTestUtils.setField(validationController, "validationService", validationService);
+        ReflectionTestUtils.setField(validationController, "traceHeadersSampleEvery", 0);
+        ReflectionTestUtils.setField(validationController, "traceHeadersDebugHeader", "x-debug-trace");
+
+        request = new ValidationRequest();
+        request.setName("Review pull request");
+
+        // Headers as they arrive through the Dapr sidecar with OpenTelemetry enabled
+        httpRequest = new MockHttpServletRequest("POST", "/validate");
+        httpRequest.addHeader("host", "127.0.0.1:8081");
+        httpRequest.addHeader("user-agent", "Go-http-client/1.1");
+        httpRequest.addHeader("content-type", "application/json");
+        httpRequest.addHeader("content-length", "31");
+        httpRequest.addHeader("accept-encoding", "gzip");
+        httpRequest.addHeader("dapr-app-id", "validation-service");
+        httpRequest.addHeader("dapr-caller-app-id", "todo-service");
+        httpRequest.addHeader("dapr-caller-namespace", "dapr-demo");
+        httpRequest.addHeader("traceparent", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        httpRequest.addHeader("tracestate", "dash0=1");
+        httpRequest.addHeader("x-forwarded-for", "10.244.0.12");
+        httpRequest.addHeader("x-forwarded-host", "validation-service");
+        httpRequest.addHeader("x-forwarded-proto", "http");
+    }
+
+    @Benchmark
+    public ValidationResponse legacy() {
+        controllerLogger.info("Received validation request for: {}", request.getName());
+        logTraceHeaders(httpRequest);
+        serviceLogger.info("Validating todo name: \"{}\"", request.getName());
+        ValidationResponse result = validationService.validateTodoName(request.getName());
+        serviceLogger.info("Validation result: {} - {}", result.isValid(), result.getMessage());
+        return result;
+    }
+
+    @Benchmark
+    public ResponseEntity<ValidationResponse> current() {
+        return validationController.validateTodo(request, httpRequest);
+    }
+
+    /**
+     * The previous ValidationController.logTraceHeaders, called on every request.
+     */
+    private static void logTraceHeaders(HttpServletRequest request) {
+        controllerLogger.info("Incoming headers:");
+        request.getHeaderNames().asIterator().forEachRemaining(headerName -> {
+            if (headerName.toLowerCase().contains("trace") ||
+                headerName.toLowerCase().contains("span") ||
+                headerName.toLowerCase().contains("x-")) {
+                controllerLogger.info("{}: {}", headerName, request.getHeader(headerName));
+            }
+        });
+
+        String traceparent = request.getHeader("traceparent");
+        if (traceparent != null) {
+            controllerLogger.info("Found traceparent header: {}", traceparent);
+        }
+
+        String traceId = request.getHeader("x-trace-id");
+        if (traceId != null) {
+            controllerLogger.info("Found x-trace-id header: {}", traceId);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(RequestLoggingBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build())
+            .run();
+    }
+}
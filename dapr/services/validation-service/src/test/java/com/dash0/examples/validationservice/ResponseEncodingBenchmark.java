@@ -0,0 +1,117 @@
+package com.dash0.examples.validationservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU and allocation cost of producing the JSON body of {@code POST /validate}, for a mix of valid,
+ * too short and forbidden names.
+ *
+ * {@code legacy} reproduces the previous path, which built a new response with a formatted message and
+ * encoded it with Jackson; {@code current} validates with precomputed responses and writes their cached
+ * JSON, as {@link PrecomputedResponseHttpMessageConverter} does. History recording is off, and the body
+ * is written to a reused buffer, so only validation and encoding are measured.
+ *
+ * Run with:
+ * <pre>
+ * ./mvnw test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) \
+ *     com.dash0.examples.validationservice.ResponseEncodingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseEncodingBenchmark {
+
+    private static final List<String> NAMES = List.of(
+        "Buy groceries", "Review pull request", "ab", "Send spam to everyone");
+
+    private ObjectMapper objectMapper;
+    private ValidationService validationService;
+    private ForbiddenWordMatcher forbiddenWords;
+    private ValidationRules rules;
+    private ByteArrayOutputStream body;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        // Configured like the application's mapper
+        objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        validationService = new ValidationService(new ValidationHistoryRecorder(new InMemoryHistoryStore(1),
+            new SimpleMeterRegistry(), false, 1, 1, Duration.ofSeconds(1), 0, Duration.ZERO), objectMapper);
+        validationService.initialize();
+        rules = validationService.getCurrentRules();
+        forbiddenWords = ForbiddenWordMatcher.compile(rules.getForbiddenWords(), rules.isNormalizeText());
+        body = new ByteArrayOutputStream(256);
+    }
+
+    @Benchmark
+    public int legacy() throws IOException {
+        ValidationResponse response = legacyValidation(NAMES.get(next++ & 3));
+        response.setRulesVersion(rules.getVersion());
+        body.reset();
+        objectMapper.writeValue(body, response);
+        return body.size();
+    }
+
+    @Benchmark
+    public int current() {
+        ValidationResponse response = validationService.validateTodoName(NAMES.get(next++ & 3));
+        body.reset();
+        body.writeBytes(((PrecomputedValidationResponse) response).getJson());
+        return body.size();
+    }
+
+    /**
+     * The previous ValidationService.performValidation.
+     */
+    private ValidationResponse legacyValidation(String name) {
+        if (name.length() < rules.getMinLength()) {
+            return new ValidationResponse(false,
+                String.format("Todo name must be at least %d characters long", rules.getMinLength()));
+        }
+        if (name.length() > rules.getMaxLength()) {
+            return new ValidationResponse(false,
+                String.format("Todo name must be less than %d characters long", rules.getMaxLength()));
+        }
+        String foundForbiddenWord = forbiddenWords.findFirst(name);
+        if (foundForbiddenWord != null) {
+            return new ValidationResponse(false,
+                String.format("Todo name contains forbidden word: \"%s\"", foundForbiddenWord));
+        }
+        return new ValidationResponse(true, "Todo name is valid");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ResponseEncodingBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build())
+            .run();
+    }
+}
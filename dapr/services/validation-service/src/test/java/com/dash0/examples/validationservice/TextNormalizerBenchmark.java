@@ -0,0 +1,110 @@
+package com.dash0.examples.validationservice;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost that {@link TextNormalizer} adds to checking one todo name against 1000 forbidden words.
+ *
+ * {@code plain} matches without normalization, {@code normalized} normalizes the name first and
+ * {@code normalizeOnly} measures the normalization by itself. {@code ascii} names take the lookup-table
+ * path; {@code unicode} names contain accented and Cyrillic letters and take the decomposition path.
+ *
+ * Run with:
+ * <pre>
+ * ./mvnw test-compile dependency:build-classpath -Dmdep.includeScope=test -Dmdep.outputFile=target/classpath.txt
+ * java -cp target/test-classes:target/classes:$(cat target/classpath.txt) \
+ *     com.dash0.examples.validationservice.TextNormalizerBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextNormalizerBenchmark {
+
+    private static final int WORD_COUNT = 1000;
+    private static final int NAME_COUNT = 1024;
+
+    @Param({"ascii", "unicode"})
+    private String names;
+
+    private ForbiddenWordMatcher plainMatcher;
+    private ForbiddenWordMatcher normalizingMatcher;
+    private String[] todoNames;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> forbiddenWords = new ArrayList<>(WORD_COUNT);
+        for (int i = 0; i < WORD_COUNT; i++) {
+            forbiddenWords.add(randomWord(random, 5 + random.nextInt(6)));
+        }
+        plainMatcher = ForbiddenWordMatcher.compile(forbiddenWords, false);
+        normalizingMatcher = ForbiddenWordMatcher.compile(forbiddenWords, true);
+
+        todoNames = new String[NAME_COUNT];
+        for (int i = 0; i < NAME_COUNT; i++) {
+            String name = "Buy " + randomWord(random, 6) + " and " + randomWord(random, 8) + " for Tuesday";
+            if (names.equals("unicode")) {
+                // An accented letter and a Cyrillic "a" (U+0430) in every name
+                name = name.replace('e', '\u00e9').replace('a', '\u0430');
+            }
+            todoNames[i] = name;
+        }
+    }
+
+    @Benchmark
+    public String plain() {
+        return plainMatcher.findFirst(nextName());
+    }
+
+    @Benchmark
+    public String normalized() {
+        return normalizingMatcher.findFirst(nextName());
+    }
+
+    @Benchmark
+    public CharSequence normalizeOnly() {
+        return TextNormalizer.normalize(nextName());
+    }
+
+    private String nextName() {
+        return todoNames[next++ & (NAME_COUNT - 1)];
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(TextNormalizerBenchmark.class.getSimpleName())
+            .build())
+            .run();
+    }
+}
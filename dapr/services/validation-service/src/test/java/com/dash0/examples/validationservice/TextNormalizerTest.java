@@ -0,0 +1,74 @@
+package com.dash0.examples.validationservice;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextNormalizerTest {
+
+    private static final List<String> DEFAULT_WORDS =
+            List.of("spam", "test123", "delete", "bad", "terrible", "awful", "hate", "stupid", "dumb");
+
+    private final ForbiddenWordMatcher matcher = ForbiddenWordMatcher.compile(DEFAULT_WORDS, true);
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Buy milk           | buy milk",
+            "  Buy -- milk.     | buy milk",
+            "SP4M               | spam",
+            "s p a m            | spam",
+            "s.p.a.m            | spam",
+            "buy s p a m now    | buy spam now",
+            "Grab a drink       | grab a drink",
+            "\uff53\uff50\u00e2\uff4d | spam",
+            "\u0455p\u0430m     | spam",
+            "s\u200bp\u200bam   | spam",
+    })
+    void normalizes(String text, String expected) {
+        assertThat(TextNormalizer.normalize(text).toString()).isEqualTo(expected);
+    }
+
+    @Test
+    void returnsCanonicalTextWithoutCopying() {
+        String text = "buy milk and eggs";
+        assertThat(TextNormalizer.normalize(text)).isSameAs(text);
+    }
+
+    @Test
+    void normalizesSeparatorsOnlyToEmptyText() {
+        assertThat(TextNormalizer.normalize(" -- ").toString()).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "Grab a drink",
+            "What events are on?",
+            "Add umbrella to list",
+            "Buy milk",
+            "Plan a b-day party",
+    })
+    void doesNotMatchAcrossWords(String name) {
+        assertThat(matcher.findFirst(name)).isNull();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "Send SP4M                 | spam",
+            "Send s p a m              | spam",
+            "Send s-p-a-m              | spam",
+            "Send \uff53\uff50\u00e2\uff4d | spam",
+            "Send \u0455p\u0430m       | spam",
+            "Send s\u200bp\u200bam     | spam",
+            "I H4TE Mondays            | hate",
+            "d.u.m.b idea              | dumb",
+            "spamming                  | spam",
+    })
+    void matchesEvasions(String name, String word) {
+        assertThat(matcher.findFirst(name)).isEqualTo(word);
+    }
+}
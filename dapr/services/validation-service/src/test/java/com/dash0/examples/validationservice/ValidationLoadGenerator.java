@@ -0,0 +1,110 @@
+package com.dash0.examples.validationservice;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator for {@code POST /validate}: keeps {@code concurrency} requests in flight for
+ * {@code duration} seconds, then prints throughput and latency percentiles. Used by
+ * {@code scripts/load-test.sh} to compare the platform-thread and virtual-thread modes.
+ *
+ * Run with:
+ * <pre>
+ * java -cp target/test-classes com.dash0.examples.validationservice.ValidationLoadGenerator \
+ *     http://localhost:8081 1000 30
+ * </pre>
+ */
+public class ValidationLoadGenerator {
+
+    private static final int MAX_SAMPLES = 2_000_000;
+    private static final String[] NAMES = {
+        "Buy groceries", "Review pull request", "Schedule team meeting", "Update documentation",
+        "Fix authentication bug", "Send spam to everyone", "Plan sprint retrospective", "Deploy to staging"
+    };
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8081";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+        Duration warmup = Duration.ofSeconds(args.length > 3 ? Long.parseLong(args[3]) : 10);
+
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        URI uri = URI.create(baseUrl + "/validate");
+
+        System.out.printf("Warming up for %ds...%n", warmup.toSeconds());
+        run(client, uri, concurrency, warmup);
+        System.out.printf("Measuring %d concurrent requests for %ds...%n", concurrency, duration.toSeconds());
+        Result result = run(client, uri, concurrency, duration);
+
+        long[] latencies = Arrays.copyOf(result.latencies, Math.min(result.count.get(), MAX_SAMPLES));
+        Arrays.sort(latencies);
+        System.out.printf("requests=%d errors=%d throughput=%.0f req/s p50=%.1fms p99=%.1fms max=%.1fms%n",
+            latencies.length, result.errors.get(), latencies.length / (double) duration.toSeconds(),
+            percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 1.0));
+    }
+
+    private static Result run(HttpClient client, URI uri, int concurrency, Duration duration) throws InterruptedException {
+        Result result = new Result();
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            send(client, uri, i, deadline, result, done);
+        }
+        done.await();
+        return result;
+    }
+
+    /**
+     * Send one request and, when it completes, the next one on the same slot until the deadline passes.
+     */
+    private static void send(HttpClient client, URI uri, int slot, long deadline, Result result, CountDownLatch done) {
+        if (System.nanoTime() >= deadline) {
+            done.countDown();
+            return;
+        }
+        String body = "{\"name\":\"" + NAMES[(slot + result.count.get()) % NAMES.length] + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .header("Content-Type", "application/json")
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        long start = System.nanoTime();
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .whenComplete((response, error) -> {
+                long latency = System.nanoTime() - start;
+                if (error != null || response.statusCode() != 200) {
+                    result.errors.incrementAndGet();
+                } else {
+                    int index = result.count.getAndIncrement();
+                    if (index < MAX_SAMPLES) {
+                        result.latencies[index] = latency;
+                    }
+                }
+                send(client, uri, slot, deadline, result, done);
+            });
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    private static final class Result {
+        final long[] latencies = new long[MAX_SAMPLES];
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicLong errors = new AtomicLong();
+    }
+}
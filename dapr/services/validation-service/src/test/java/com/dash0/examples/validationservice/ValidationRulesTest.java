@@ -0,0 +1,47 @@
+package com.dash0.examples.validationservice;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidationRulesTest {
+
+    @Test
+    void derivesTheSameVersionFromEqualRules() {
+        assertThat(rules(List.of("spam", "bad")).computeVersion())
+                .isEqualTo(rules(List.of("spam", "bad")).computeVersion())
+                .hasSize(16);
+    }
+
+    @Test
+    void derivesDifferentVersionsFromRulesWithEqualHashCodes() {
+        // "Aa" and "BB" share a String hash code
+        assertThat(List.of("Aa").hashCode()).isEqualTo(List.of("BB").hashCode());
+
+        assertThat(rules(List.of("Aa")).computeVersion()).isNotEqualTo(rules(List.of("BB")).computeVersion());
+    }
+
+    @Test
+    void derivesDifferentVersionsWhenWordBoundariesMove() {
+        assertThat(rules(List.of("ab", "c")).computeVersion()).isNotEqualTo(rules(List.of("a", "bc")).computeVersion());
+    }
+
+    @Test
+    void comparesRuleValuesButNotTheVersion() {
+        ValidationRules rules = rules(List.of("spam"));
+        ValidationRules sameValues = rules(List.of("spam"));
+        sameValues.setVersion("stale");
+        ValidationRules otherValues = rules(List.of("spam"));
+        otherValues.setNormalizeText(!rules.isNormalizeText());
+        otherValues.setVersion(rules.getVersion());
+
+        assertThat(rules).isEqualTo(sameValues).hasSameHashCodeAs(sameValues);
+        assertThat(rules).isNotEqualTo(otherValues);
+    }
+
+    private static ValidationRules rules(List<String> forbiddenWords) {
+        return new ValidationRules(3, 100, forbiddenWords, true, false);
+    }
+}
@@ -0,0 +1,41 @@
+package com.dash0.examples.validationservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValidationServiceTest {
+
+    // History recording is off
+    private final ValidationService validationService = new ValidationService(new ValidationHistoryRecorder(
+            new InMemoryHistoryStore(1), new SimpleMeterRegistry(), false, 1, 1, Duration.ofSeconds(1), 0, Duration.ZERO),
+            new ObjectMapper());
+
+    @Test
+    void appliesOnlyRulesThatDifferFromTheActiveOnes() {
+        assertThat(validationService.applyRules(rules(List.of("Aa")))).isTrue();
+        assertThat(validationService.applyRules(rules(List.of("Aa")))).isFalse();
+
+        // Same String hash code, different rules
+        assertThat(validationService.applyRules(rules(List.of("BB")))).isTrue();
+        assertThat(validationService.getCurrentRules().getForbiddenWords()).containsExactly("BB");
+    }
+
+    @Test
+    void normalizesNamesWithTheBuiltInRules() {
+        validationService.initialize();
+
+        assertThat(validationService.getCurrentRules().isNormalizeText()).isTrue();
+        assertThat(validationService.validateTodoName("Buy S P 4 M").isValid()).isFalse();
+        assertThat(validationService.validateTodoName("Grab a drink").isValid()).isTrue();
+    }
+
+    private static ValidationRules rules(List<String> forbiddenWords) {
+        return new ValidationRules(3, 100, forbiddenWords, true, false);
+    }
+}